@@ -0,0 +1,414 @@
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Benchmarks for the DAO and table-population paths. Results are written as JSON in the
+// same layout JMH uses for -rf json, so the usual JMH result viewers and diff tools work.
+//
+// The database benchmarks empty the students table, so they only run against a database
+// named explicitly in DB_URL, never the app's default StudentDB. For offline runs use an
+// in-process database in MySQL mode, for example:
+//   DB_URL='jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1' java -cp out:h2.jar StudentBenchmarks
+// Without such a database only the in-memory benchmarks run.
+//
+// Options: --sizes 1000,100000,1000000  --warmup 3  --iterations 5  --out bench-results.json
+public class StudentBenchmarks {
+
+    // Results are folded in here so the JIT cannot drop the measured work
+    private static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final List<Map<String, Object>> results = new ArrayList<>();
+
+    private StudentBenchmarks(int warmupIterations, int measurementIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int[] sizes = parseSizes(options.getOrDefault("sizes", "1000,100000,1000000"));
+        Path out = Path.of(options.getOrDefault("out", "bench-results.json"));
+        StudentBenchmarks bench = new StudentBenchmarks(
+                Integer.parseInt(options.getOrDefault("warmup", "3")),
+                Integer.parseInt(options.getOrDefault("iterations", "5")));
+
+        System.setProperty("java.awt.headless", "true");
+        bench.runTableModelBenchmarks(sizes);
+        bench.runStatisticsBenchmarks(sizes);
+
+        if (!benchDatabaseConfigured()) {
+            System.err.println("DB_URL does not name a dedicated benchmark database; skipped database benchmarks.");
+        } else if (databaseAvailable()) {
+            bench.runInsertBenchmarks();
+            bench.runReadBenchmarks(sizes);
+        } else {
+            System.err.println("No database reachable via DB_URL; skipped database benchmarks.");
+        }
+
+        bench.writeJson(out);
+        System.out.println("Wrote " + bench.results.size() + " result(s) to " + out.toAbsolutePath());
+        System.exit(0);
+    }
+
+    // --- Benchmarks ---
+
+    private void runTableModelBenchmarks(int[] sizes) throws Exception {
+        for (int size : sizes) {
+            List<Student> students = syntheticStudents(size, new Random(42));
+            StudentSnapshot.Builder builder = new StudentSnapshot.Builder(size);
+            students.forEach(builder::add);
+            StudentSnapshot snapshot = builder.build();
+            Map<String, String> params = Map.of("rows", String.valueOf(size));
+
+            measure("TableModel.fill", with(params, "model", "DefaultTableModel.addRow"), "ms/op", 1, () -> {
+                DefaultTableModel model = new DefaultTableModel(
+                        new Object[]{"ID", "First Name", "Last Name", "Age", "Email"}, 0);
+                new JTable(model);
+                for (Student s : students) {
+                    model.addRow(new Object[]{s.getId(), s.getFirstName(), s.getLastName(), s.getAge(), s.getEmail()});
+                }
+                return model.getRowCount();
+            });
+            measure("TableModel.fill", with(params, "model", "StudentListTableModel"), "ms/op", 1, () -> {
+                StudentListTableModel model = new StudentListTableModel();
+                new JTable(model);
+                model.setStudents(students);
+                return model.getRowCount();
+            });
+            measure("TableModel.fill", with(params, "model", "SnapshotStudentTableModel"), "ms/op", 1, () -> {
+                SnapshotStudentTableModel model = new SnapshotStudentTableModel();
+                new JTable(model);
+                model.setSnapshot(snapshot);
+                return model.getRowCount();
+            });
+        }
+    }
+
+    // In-memory side of the statistics comparison; the database side is in runReadBenchmarks
+    private void runStatisticsBenchmarks(int[] sizes) throws Exception {
+        for (int size : sizes) {
+            StudentSnapshot.Builder builder = new StudentSnapshot.Builder(size);
+            syntheticStudents(size, new Random(42)).forEach(builder::add);
+            StudentSnapshot snapshot = builder.build();
+            Map<String, String> params = Map.of("rows", String.valueOf(size));
+
+            measure("Statistics", with(params, "source", "snapshot-sequential"), "ms/op", 1, () ->
+                    StudentStatistics.fromSnapshot(snapshot, 5, 10, false).getCount());
+            measure("Statistics", with(params, "source", "snapshot-parallel"), "ms/op", 1, () ->
+                    StudentStatistics.fromSnapshot(snapshot, 5, 10, true).getCount());
+        }
+    }
+
+    private void runInsertBenchmarks() throws Exception {
+        int rows = 1000;
+        StudentDAO dao = new StudentDAO();
+        Random random = new Random(7);
+
+        resetTable();
+        measure("StudentDAO.addStudent", Map.of("mode", "single"), "us/op", rows, () -> {
+            long sum = 0;
+            for (Student s : syntheticStudents(rows, random)) {
+                sum += dao.addStudent(s);
+            }
+            return sum;
+        });
+        resetTable();
+        measure("StudentDAO.addStudents", Map.of("mode", "batched",
+                "batchSize", String.valueOf(StudentDAO.DEFAULT_BATCH_SIZE)), "us/op", rows, () ->
+                dao.addStudents(syntheticStudents(rows, random)).size());
+    }
+
+    private void runReadBenchmarks(int[] sizes) throws Exception {
+        StudentDAO dao = new StudentDAO();
+        resetTable();
+        for (int size : sizes) {
+            seedTo(size);
+            Map<String, String> params = Map.of("rows", String.valueOf(size));
+            measure("StudentDAO.getAllStudents", params, "ms/op", 1, () -> dao.getAllStudents().size());
+            measure("StudentDAO.loadSnapshot", params, "ms/op", 1, () -> dao.loadSnapshot().size());
+            measure("Statistics", with(params, "source", "sql"), "ms/op", 1, () ->
+                    dao.getStatistics(5, 10).getCount());
+            measure("Statistics", with(params, "source", "loadSnapshot+parallel"), "ms/op", 1, () ->
+                    StudentStatistics.fromSnapshot(dao.loadSnapshot(), 5, 10, true).getCount());
+            measure("ResultSetMapping", with(params, "by", "columnName"), "ms/op", 1, () -> mapAll(false));
+            measure("ResultSetMapping", with(params, "by", "columnIndex"), "ms/op", 1, () -> mapAll(true));
+
+            int lookups = 1000;
+            int[] ids = sampleIds(lookups, new Random(size));
+            measure("StudentDAO.getStudentById", with(params, "cache", "cold"), "us/op", lookups, () -> {
+                long sum = 0;
+                for (int id : ids) {
+                    Student s = dao.getStudentById(id);
+                    sum += s == null ? 0 : s.getAge();
+                }
+                return sum;
+            });
+            CachingStudentDAO cached = new CachingStudentDAO(lookups * 2, 0, 0);
+            for (int id : ids) {
+                cached.getStudentById(id);
+            }
+            measure("StudentDAO.getStudentById", with(params, "cache", "cached"), "us/op", lookups, () -> {
+                long sum = 0;
+                for (int id : ids) {
+                    Student s = cached.getStudentById(id);
+                    sum += s == null ? 0 : s.getAge();
+                }
+                return sum;
+            });
+        }
+    }
+
+    private long mapAll(boolean byIndex) throws SQLException {
+        String sql = "SELECT id, first_name, last_name, age, email FROM students";
+        long sum = 0;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Student s = byIndex
+                        ? new Student(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getString(5))
+                        : new Student(rs.getInt("id"), rs.getString("first_name"), rs.getString("last_name"),
+                        rs.getInt("age"), rs.getString("email"));
+                sum += s.getId();
+            }
+        }
+        return sum;
+    }
+
+    // --- Harness ---
+
+    private interface Body {
+        long run() throws Exception;
+    }
+
+    // Runs warmup plus measured iterations; opsPerIteration converts the time per
+    // iteration into time per operation in the given unit (ms/op or us/op)
+    private void measure(String benchmark, Map<String, String> params, String unit,
+                         int opsPerIteration, Body body) throws Exception {
+        double divisor = unit.startsWith("ms") ? 1_000_000.0 : 1_000.0;
+        for (int i = 0; i < warmupIterations; i++) {
+            sink += body.run();
+        }
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            long start = System.nanoTime();
+            sink += body.run();
+            scores[i] = (System.nanoTime() - start) / divisor / opsPerIteration;
+        }
+
+        double mean = 0;
+        for (double score : scores) {
+            mean += score;
+        }
+        mean /= scores.length;
+        double variance = 0;
+        for (double score : scores) {
+            variance += (score - mean) * (score - mean);
+        }
+        double stdDev = scores.length > 1 ? Math.sqrt(variance / (scores.length - 1)) : 0;
+        // Normal approximation of the 99.9% confidence half-width
+        double error = 3.29 * stdDev / Math.sqrt(scores.length);
+
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("score", mean);
+        metric.put("scoreError", error);
+        metric.put("scoreUnit", unit);
+        metric.put("rawData", scores);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", benchmark);
+        result.put("mode", "avgt");
+        result.put("threads", 1);
+        result.put("forks", 1);
+        result.put("warmupIterations", warmupIterations);
+        result.put("measurementIterations", measurementIterations);
+        result.put("params", params);
+        result.put("primaryMetric", metric);
+        results.add(result);
+
+        System.out.printf(Locale.ROOT, "%-28s %-60s %12.3f ± %8.3f %s%n",
+                benchmark, params, mean, error, unit);
+    }
+
+    // Also used by StudentLoadTest. Brings the schema up to date with the app's own
+    // migrations, so the DAO runs against the same columns and indexes as in production.
+    static boolean databaseAvailable() {
+        try (Connection conn = DBConnection.getConnection()) {
+            SchemaMigrator.migrateUnlocked(conn);
+            if (conn.getMetaData().getDatabaseProductName().equals("H2")) {
+                // The statistics query uses MySQL's SUBSTRING_INDEX, which H2 lacks
+                try (Statement st = conn.createStatement()) {
+                    st.execute("CREATE ALIAS IF NOT EXISTS SUBSTRING_INDEX FOR \"StudentBenchmarks.substringIndex\"");
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Database unavailable: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // MySQL's SUBSTRING_INDEX: the text before the count-th delimiter, or after the count-th
+    // one from the end when count is negative
+    public static String substringIndex(String value, String delimiter, int count) {
+        if (value == null || delimiter == null || delimiter.isEmpty() || count == 0) {
+            return value == null ? null : "";
+        }
+        if (count > 0) {
+            int at = -1;
+            for (int i = 0; i < count; i++) {
+                at = value.indexOf(delimiter, at + 1);
+                if (at < 0) {
+                    return value;
+                }
+            }
+            return value.substring(0, at);
+        }
+        int at = value.length();
+        for (int i = 0; i < -count; i++) {
+            at = at == 0 ? -1 : value.lastIndexOf(delimiter, at - 1);
+            if (at < 0) {
+                return value;
+            }
+        }
+        return value.substring(at + delimiter.length());
+    }
+
+    private static boolean benchDatabaseConfigured() {
+        String url = System.getenv("DB_URL");
+        return url != null && !url.isBlank()
+                && !url.toLowerCase(Locale.ROOT).startsWith(DBConnection.DEFAULT_DATABASE.toLowerCase(Locale.ROOT));
+    }
+
+    private void resetTable() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("TRUNCATE TABLE students");
+        }
+    }
+
+    private void seedTo(int size) throws SQLException {
+        StudentDAO dao = new StudentDAO();
+        int missing = size - dao.countStudents();
+        Random random = new Random(size);
+        while (missing > 0) {
+            int chunk = Math.min(missing, 10_000);
+            dao.addStudents(syntheticStudents(chunk, random));
+            missing -= chunk;
+        }
+    }
+
+    private int[] sampleIds(int count, Random random) throws SQLException {
+        StudentDAO dao = new StudentDAO();
+        int first = dao.getIdAtOffset(0);
+        int rows = dao.countStudents();
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = first + random.nextInt(Math.max(1, rows));
+        }
+        return ids;
+    }
+
+    private static final String[] FIRST_NAMES = {"Ali", "Sara", "Omar", "Ayesha", "Bilal", "Fatima", "Hassan",
+            "Zainab", "John", "Maria", "Ahmed", "Hina", "Usman", "Mariam", "David", "Emma"};
+    private static final String[] LAST_NAMES = {"Khan", "Ahmed", "Raza", "Malik", "Hussain", "Smith", "Iqbal",
+            "Sheikh", "Butt", "Jones", "Qureshi", "Chaudhry"};
+
+    // Emails carry a sequence number, so they never trip the unique email index
+    private static final AtomicLong EMAIL_SEQUENCE = new AtomicLong();
+
+    static List<Student> syntheticStudents(int count, Random random) {
+        List<Student> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = (first + "." + last + "." + EMAIL_SEQUENCE.incrementAndGet() + "@example.edu")
+                    .toLowerCase(Locale.ROOT);
+            list.add(new Student(first, last, 17 + random.nextInt(30), email));
+        }
+        return list;
+    }
+
+    private static Map<String, String> with(Map<String, String> params, String key, String value) {
+        Map<String, String> copy = new LinkedHashMap<>(params);
+        copy.put(key, value);
+        return copy;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static int[] parseSizes(String value) {
+        String[] parts = value.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+
+    // --- JSON output ---
+
+    private void writeJson(Path out) throws IOException {
+        StringBuilder json = new StringBuilder();
+        appendJson(json, results, 0);
+        json.append('\n');
+        Files.writeString(out, json, StandardCharsets.UTF_8);
+    }
+
+    private static void appendJson(StringBuilder out, Object value, int indent) {
+        if (value instanceof Map<?, ?> map) {
+            out.append("{\n");
+            int i = 0;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                out.append("  ".repeat(indent + 1)).append('"').append(e.getKey()).append("\": ");
+                appendJson(out, e.getValue(), indent + 1);
+                out.append(++i < map.size() ? ",\n" : "\n");
+            }
+            out.append("  ".repeat(indent)).append('}');
+        } else if (value instanceof List<?> list) {
+            out.append("[\n");
+            for (int i = 0; i < list.size(); i++) {
+                out.append("  ".repeat(indent + 1));
+                appendJson(out, list.get(i), indent + 1);
+                out.append(i + 1 < list.size() ? ",\n" : "\n");
+            }
+            out.append("  ".repeat(indent)).append(']');
+        } else if (value instanceof double[] scores) {
+            // JMH nests raw data per fork
+            out.append("[[");
+            for (int i = 0; i < scores.length; i++) {
+                out.append(i > 0 ? ", " : "").append(String.format(Locale.ROOT, "%.6f", scores[i]));
+            }
+            out.append("]]");
+        } else if (value instanceof Double d) {
+            out.append(String.format(Locale.ROOT, "%.6f", d));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else {
+            out.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+    }
+}
@@ -0,0 +1,342 @@
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Load and soak test for the DAO layer. Simulated operators issue a mix of getStudentById,
+// getStudentsAfter and addStudent calls; together they aim for --rate operations per
+// second. Every --interval seconds it prints throughput, errors, latency percentiles and
+// the calls still in flight, so a long run shows when and how the system starts to struggle.
+//
+// With a target rate the load is open-loop: each operator keeps a fixed schedule and starts
+// every call on its own virtual thread when it is due, whether or not earlier calls have
+// returned. Latency is measured from when a call was due. A stalled database therefore
+// shows up as rising latency and a growing number of calls in flight, instead of the
+// request rate quietly dropping. With --rate 0 the load is closed-loop: each operator is
+// one virtual thread running calls back to back.
+//
+// Runs against whatever DB_URL points to; for offline runs use an in-process database in
+// MySQL mode, as with StudentBenchmarks:
+//   DB_URL='jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1' java -cp out:h2.jar StudentLoadTest
+//
+// Options: --operators 200  --rate 1000  --duration 60  --interval 5  --mix get=70,list=20,add=10
+//          --seed 100000  --page 50  --cache false  --csv load-results.csv
+public class StudentLoadTest {
+
+    enum Operation {
+        GET, LIST, ADD
+    }
+
+    private final StudentDAO dao;
+    private final int operators;
+    private final double rate;
+    private final long durationNanos;
+    private final long intervalNanos;
+    private final int pageSize;
+    private final int[] mix;
+    private final int mixTotal;
+
+    private final Map<Operation, AtomicReference<Histogram>> intervalLatency = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> totalLatency = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> intervalErrors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> totalErrors = new EnumMap<>(Operation.class);
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private final AtomicInteger minId = new AtomicInteger(1);
+    private final AtomicInteger maxId = new AtomicInteger();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    StudentLoadTest(StudentDAO dao, int operators, double rate, long durationSeconds, long intervalSeconds,
+                    int pageSize, Map<Operation, Integer> mix) {
+        this.dao = dao;
+        this.operators = operators;
+        this.rate = rate;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(intervalSeconds);
+        this.pageSize = pageSize;
+        this.mix = new int[Operation.values().length];
+        int total = 0;
+        for (Operation op : Operation.values()) {
+            total += mix.getOrDefault(op, 0);
+            this.mix[op.ordinal()] = total;
+            intervalLatency.put(op, new AtomicReference<>(new Histogram()));
+            totalLatency.put(op, new Histogram());
+            intervalErrors.put(op, new LongAdder());
+            totalErrors.put(op, new LongAdder());
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix must add up to more than 0");
+        }
+        this.mixTotal = total;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (!StudentBenchmarks.databaseAvailable()) {
+            System.err.println("No database reachable via DB_URL.");
+            System.exit(1);
+        }
+        StudentDAO dao = Boolean.parseBoolean(options.getOrDefault("cache", "false"))
+                ? new CachingStudentDAO() : new StudentDAO();
+        StudentLoadTest test = new StudentLoadTest(dao,
+                Integer.parseInt(options.getOrDefault("operators", "200")),
+                Double.parseDouble(options.getOrDefault("rate", "1000")),
+                Long.parseLong(options.getOrDefault("duration", "60")),
+                Long.parseLong(options.getOrDefault("interval", "5")),
+                Integer.parseInt(options.getOrDefault("page", "50")),
+                parseMix(options.getOrDefault("mix", "get=70,list=20,add=10")));
+        test.seed(Integer.parseInt(options.getOrDefault("seed", "100000")));
+        String csv = options.get("csv");
+        try (PrintWriter out = csv == null ? null
+                : new PrintWriter(Files.newBufferedWriter(Path.of(csv), StandardCharsets.UTF_8))) {
+            boolean clean = test.run(out);
+            System.out.println("Pool: " + DBConnection.getPoolStats());
+            System.exit(clean ? 0 : 2);
+        }
+    }
+
+    // Tops the table up to `rows` students, so reads hit real rows from the first second
+    void seed(int rows) throws SQLException {
+        int existing = dao.countStudents();
+        int missing = rows - existing;
+        if (missing > 0) {
+            System.out.printf(Locale.ROOT, "Seeding %,d student(s)...%n", missing);
+        }
+        while (missing > 0) {
+            int chunk = Math.min(missing, 10_000);
+            List<Student> students = new ArrayList<>(chunk);
+            for (int i = 0; i < chunk; i++) {
+                students.add(newStudent(ThreadLocalRandom.current()));
+            }
+            dao.addStudents(students);
+            missing -= chunk;
+        }
+        int first = dao.getIdAtOffset(0);
+        if (first > 0) {
+            minId.set(first);
+            maxId.set(dao.getWatermark().getMaxId());
+        }
+        System.out.printf(Locale.ROOT, "Reading ids %d..%d%n", minId.get(), maxId.get());
+    }
+
+    // Returns false if any call failed
+    boolean run(PrintWriter csv) throws InterruptedException {
+        System.out.printf(Locale.ROOT, "%d operator(s), target %s, mix %s, %d s%n", operators,
+                rate > 0 ? String.format(Locale.ROOT, "%.0f ops/s", rate) : "unlimited",
+                describeMix(), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        System.out.printf(Locale.ROOT, "%6s %9s %8s %7s %9s %9s %9s %9s %9s%n",
+                "time", "ops/s", "errors", "err%", "p50 ms", "p95 ms", "p99 ms", "max ms", "in flight");
+        if (csv != null) {
+            csv.println("elapsed_s,operation,ops,ops_per_s,errors,p50_ms,p95_ms,p99_ms,max_ms");
+        }
+
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < operators; i++) {
+                int operator = i;
+                executor.submit(() -> operate(executor, operator, start, end));
+            }
+            long nextReport = start + intervalNanos;
+            long lastReport = start;
+            while (true) {
+                long now = System.nanoTime();
+                long wait = Math.min(nextReport, end) - now;
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                    continue;
+                }
+                report(now - start, now - lastReport, csv);
+                lastReport = now;
+                if (now >= end) {
+                    break;
+                }
+                nextReport += intervalNanos;
+            }
+        }
+        return summarize();
+    }
+
+    private void operate(ExecutorService executor, int operator, long start, long end) {
+        if (rate <= 0) {
+            while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                call(System.nanoTime());
+            }
+            return;
+        }
+        long period = (long) (operators * 1e9 / rate);
+        // Spread the operators over one period so they do not all fire at once
+        long due = start + period * operator / operators;
+        for (; due < end; due += period) {
+            // parkNanos may return early, so wait until the call is actually due
+            long delay;
+            while ((delay = due - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(delay);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            long scheduled = due;
+            try {
+                executor.submit(() -> call(scheduled));
+            } catch (RejectedExecutionException e) {
+                return; // The run is over and the executor is shutting down
+            }
+        }
+    }
+
+    // Runs one call and records its latency from `due`
+    private void call(long due) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation op = pick(random);
+        inFlight.incrementAndGet();
+        try {
+            execute(op, random);
+            long micros = (System.nanoTime() - due) / 1_000;
+            intervalLatency.get(op).get().record(micros);
+            totalLatency.get(op).record(micros);
+        } catch (Exception e) {
+            intervalErrors.get(op).increment();
+            totalErrors.get(op).increment();
+            lastError.set(op + ": " + e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void execute(Operation op, ThreadLocalRandom random) throws SQLException {
+        switch (op) {
+            case GET:
+                dao.getStudentById(randomId(random));
+                break;
+            case LIST:
+                dao.getStudentsAfter(randomId(random) - 1, pageSize);
+                break;
+            case ADD:
+                int id = dao.addStudent(newStudent(random));
+                maxId.accumulateAndGet(id, Math::max);
+                break;
+        }
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int n = random.nextInt(mixTotal);
+        for (Operation op : Operation.values()) {
+            if (n < mix[op.ordinal()]) {
+                return op;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private int randomId(ThreadLocalRandom random) {
+        int low = minId.get();
+        int high = Math.max(low, maxId.get());
+        return random.nextInt(low, high + 1);
+    }
+
+    // Emails carry a run id and sequence number, so they never trip the unique email index
+    private Student newStudent(Random random) {
+        Student s = StudentBenchmarks.syntheticStudents(1, random).get(0);
+        s.setEmail("load-" + runId + "-" + emailSequence.incrementAndGet() + "@example.edu");
+        return s;
+    }
+
+    private void report(long elapsedNanos, long windowNanos, PrintWriter csv) {
+        double seconds = windowNanos / 1e9;
+        Histogram combined = new Histogram();
+        long errors = 0;
+        for (Operation op : Operation.values()) {
+            Histogram h = intervalLatency.get(op).getAndSet(new Histogram());
+            long opErrors = intervalErrors.get(op).sumThenReset();
+            combined.add(h);
+            errors += opErrors;
+            if (csv != null) {
+                csv.printf(Locale.ROOT, "%.1f,%s,%d,%.1f,%d,%.3f,%.3f,%.3f,%.3f%n",
+                        elapsedNanos / 1e9, op.name().toLowerCase(Locale.ROOT), h.getCount(), h.getCount() / seconds,
+                        opErrors, h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(95) / 1000.0,
+                        h.getValueAtPercentile(99) / 1000.0, h.getMax() / 1000.0);
+            }
+        }
+        long calls = combined.getCount() + errors;
+        System.out.printf(Locale.ROOT, "%5.0fs %9.1f %8d %6.2f%% %9.2f %9.2f %9.2f %9.2f %9d%n",
+                elapsedNanos / 1e9, calls / seconds, errors, calls == 0 ? 0.0 : errors * 100.0 / calls,
+                combined.getValueAtPercentile(50) / 1000.0, combined.getValueAtPercentile(95) / 1000.0,
+                combined.getValueAtPercentile(99) / 1000.0, combined.getMax() / 1000.0, inFlight.get());
+        if (csv != null) {
+            csv.flush();
+        }
+    }
+
+    private boolean summarize() {
+        double seconds = durationNanos / 1e9;
+        long allErrors = 0;
+        System.out.printf(Locale.ROOT, "%nTotals over %.0f s:%n%-6s %9s %9s %8s %9s %9s %9s %9s %9s%n", seconds,
+                "op", "calls", "ops/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation op : Operation.values()) {
+            Histogram h = totalLatency.get(op);
+            long errors = totalErrors.get(op).sum();
+            allErrors += errors;
+            System.out.printf(Locale.ROOT, "%-6s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    op.name().toLowerCase(Locale.ROOT), h.getCount() + errors, (h.getCount() + errors) / seconds,
+                    errors, h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(95) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0, h.getMax() / 1000.0);
+        }
+        if (lastError.get() != null) {
+            System.out.println("Last error: " + lastError.get());
+        }
+        return allErrors == 0;
+    }
+
+    private String describeMix() {
+        StringBuilder sb = new StringBuilder();
+        int previous = 0;
+        for (Operation op : Operation.values()) {
+            int share = mix[op.ordinal()] - previous;
+            previous = mix[op.ordinal()];
+            if (share > 0) {
+                sb.append(sb.length() == 0 ? "" : ",").append(op.name().toLowerCase(Locale.ROOT)).append('=').append(share);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad --mix entry '" + part + "'; expected e.g. get=70,list=20,add=10");
+            }
+            mix.put(Operation.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -6,5 +6,15 @@ Create table students (
     first_name varchar(50),
     last_name varchar(50),
     age int,
-    email varchar(100)
-);
\ No newline at end of file
+    email varchar(100),
+    -- Change tracking for delta refresh: set on insert and on every update
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    -- Optimistic locking: every update checks and bumps it
+    version INT NOT NULL DEFAULT 0,
+    INDEX idx_students_updated_at (updated_at),
+    UNIQUE INDEX uq_students_email (email),
+    INDEX idx_students_last_first (last_name, first_name)
+);
+
+-- Existing databases are upgraded automatically: SchemaMigrator applies any missing
+-- schema changes at startup and records them in the schema_version table.
\ No newline at end of file
@@ -0,0 +1,289 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+// Asynchronous facade over StudentDAO. Every call runs on its own virtual thread and
+// returns a CompletableFuture that:
+// - times out after DB_ASYNC_TIMEOUT_MS (default 30 s) unless a timeout is given,
+// - interrupts the query's thread when it is cancelled or times out,
+// - for reads, is shared with identical calls already in flight, so two concurrent
+//   getStudentById(42) run one query. Each caller gets its own copy of the Students in the
+//   shared result, so it may edit them freely; the query is only interrupted once every
+//   caller has cancelled.
+// With DB_BATCH_WINDOW_MS set (default 2 ms), getStudentById calls arriving close together
+// are answered by one getStudentsByIds instead; see StudentBatchLoader.
+public class AsyncStudentDAO implements AutoCloseable {
+
+    private final StudentDAO dao;
+    private final StudentWriteBehindQueue writeBehind;
+    private final long timeoutMillis;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("student-dao-", 0).factory());
+    private final Map<String, Shared<?>> inFlight = new ConcurrentHashMap<>();
+    private final StudentBatchLoader batchLoader;
+
+    public AsyncStudentDAO(StudentDAO dao) {
+        this(dao, null);
+    }
+
+    // With a write-behind queue, addStudent is group-committed with other single inserts
+    public AsyncStudentDAO(StudentDAO dao, StudentWriteBehindQueue writeBehind) {
+        this(dao, writeBehind, DBConnection.envInt("DB_ASYNC_TIMEOUT_MS", 30_000), true);
+    }
+
+    public AsyncStudentDAO(StudentDAO dao, StudentWriteBehindQueue writeBehind, long timeoutMillis) {
+        this(dao, writeBehind, timeoutMillis, false);
+    }
+
+    private AsyncStudentDAO(StudentDAO dao, StudentWriteBehindQueue writeBehind, long timeoutMillis,
+                            boolean batchLookups) {
+        this.dao = dao;
+        this.writeBehind = writeBehind;
+        this.timeoutMillis = timeoutMillis;
+        this.batchLoader = batchLookups ? StudentBatchLoader.fromEnvironment(dao, executor) : null;
+    }
+
+    public StudentDAO getDelegate() {
+        return dao;
+    }
+
+    // null unless write-behind is enabled
+    public StudentWriteBehindQueue getWriteBehind() {
+        return writeBehind;
+    }
+
+    // --- Writes (never coalesced) ---
+
+    public CompletableFuture<Integer> addStudent(Student s) {
+        if (writeBehind != null) {
+            // enqueue blocks while the queue is full, so keep it off the caller's thread
+            return submit(() -> writeBehind.enqueue(s)).thenCompose(committed -> committed);
+        }
+        return submit(() -> dao.addStudent(s));
+    }
+
+    public CompletableFuture<List<Integer>> addStudents(Iterable<Student> students) {
+        return submit(() -> dao.addStudents(students));
+    }
+
+    // Fails with StudentConflictException if any student moved on from the version it carries
+    public CompletableFuture<Integer> updateStudents(Collection<Student> students) {
+        return submit(() -> dao.updateStudents(students));
+    }
+
+    public CompletableFuture<Integer> deleteByIds(Collection<Integer> ids) {
+        return submit(() -> dao.deleteByIds(ids));
+    }
+
+    // --- Reads (coalesced) ---
+
+    public CompletableFuture<Student> getStudentById(int id) {
+        if (batchLoader != null) {
+            CompletableFuture<Student> result = batchLoader.load(id);
+            return timeoutMillis > 0 ? result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS) : result;
+        }
+        return coalesce("getStudentById:" + id, () -> dao.getStudentById(id), AsyncStudentDAO::copy);
+    }
+
+    // In the order given, with null for ids that have no student
+    public CompletableFuture<List<Student>> getStudentsByIds(Collection<Integer> ids) {
+        return submit(() -> dao.getStudentsByIds(ids));
+    }
+
+    public CompletableFuture<List<Student>> getStudentsAfter(int afterId, int limit) {
+        return coalesce("getStudentsAfter:" + afterId + ":" + limit, () -> dao.getStudentsAfter(afterId, limit),
+                AsyncStudentDAO::copyAll);
+    }
+
+    public CompletableFuture<Integer> getIdAtOffset(int offset) {
+        return coalesce("getIdAtOffset:" + offset, () -> dao.getIdAtOffset(offset));
+    }
+
+    public CompletableFuture<Integer> countStudents() {
+        return coalesce("countStudents", dao::countStudents);
+    }
+
+    public CompletableFuture<Student> findByEmail(String email) {
+        return coalesce("findByEmail:" + email, () -> dao.findByEmail(email), AsyncStudentDAO::copy);
+    }
+
+    public CompletableFuture<List<Student>> findByLastName(String prefix, int limit) {
+        return coalesce("findByLastName:" + prefix + ":" + limit, () -> dao.findByLastName(prefix, limit),
+                AsyncStudentDAO::copyAll);
+    }
+
+    public CompletableFuture<StudentStatistics> getStatistics(int ageBucketWidth, int topDomains) {
+        return coalesce("getStatistics:" + ageBucketWidth + ":" + topDomains,
+                () -> dao.getStatistics(ageBucketWidth, topDomains));
+    }
+
+    public CompletableFuture<StudentWatermark> getWatermark() {
+        return coalesce("getWatermark", dao::getWatermark);
+    }
+
+    public CompletableFuture<StudentDelta> getStudentsChangedSince(StudentWatermark since, int limit) {
+        return coalesce("getStudentsChangedSince:" + since + ":" + limit,
+                () -> dao.getStudentsChangedSince(since, limit),
+                delta -> new StudentDelta(copyAll(delta.getChanged()), since, delta.getWatermark(), delta.isTruncated()));
+    }
+
+    public CompletableFuture<List<Student>> getAllStudents() {
+        return coalesce("getAllStudents", dao::getAllStudents, AsyncStudentDAO::copyAll);
+    }
+
+    public CompletableFuture<StudentSnapshot> loadSnapshot() {
+        return coalesce("loadSnapshot", dao::loadSnapshot);
+    }
+
+    // --- Generic entry points ---
+
+    public <T> CompletableFuture<T> submit(SqlCall<T> call) {
+        return submit(call, timeoutMillis);
+    }
+
+    // timeoutMillis <= 0 disables the timeout
+    public <T> CompletableFuture<T> submit(SqlCall<T> call, long timeoutMillis) {
+        return run(new CompletableFuture<>(), call::call, timeoutMillis);
+    }
+
+    // For work that is not a query, such as reading or writing a file
+    public <T> CompletableFuture<T> submitTask(Callable<T> work, long timeoutMillis) {
+        return run(new CompletableFuture<>(), work, timeoutMillis);
+    }
+
+    // Runs call to complete result, which the caller may already be holding on to
+    private <T> CompletableFuture<T> run(CompletableFuture<T> result, Callable<T> call, long timeoutMillis) {
+        if (result.isDone()) {
+            return result;
+        }
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        // Cancellation and timeouts complete the future from outside; stop the query too
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    // Joins an identical in-flight read or starts a new one under this key. For results
+    // that cannot be modified, such as Integer or StudentSnapshot
+    public <T> CompletableFuture<T> coalesce(String key, SqlCall<T> call) {
+        return coalesce(key, call, UnaryOperator.identity());
+    }
+
+    // As above, handing each caller copy.apply(result) so callers cannot see each other's
+    // changes to a mutable result
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> coalesce(String key, SqlCall<T> call, UnaryOperator<T> copy) {
+        while (true) {
+            Shared<T> created = new Shared<>();
+            Shared<T> shared = (Shared<T>) inFlight.putIfAbsent(key, created);
+            if (shared == null) {
+                shared = created;
+                created.start(key, call);
+            }
+            CompletableFuture<T> view = shared.subscribe(copy);
+            if (view != null) {
+                return view;
+            }
+            // Every caller of that query gave up on it; start a fresh one
+            inFlight.remove(key, shared);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void close() {
+        if (batchLoader != null) {
+            batchLoader.close();
+        }
+        executor.shutdownNow();
+    }
+
+    private static Student copy(Student s) {
+        return s == null ? null
+                : new Student(s.getId(), s.getFirstName(), s.getLastName(), s.getAge(), s.getEmail(), s.getVersion());
+    }
+
+    private static List<Student> copyAll(List<Student> students) {
+        List<Student> copies = new ArrayList<>(students.size());
+        for (Student s : students) {
+            copies.add(copy(s));
+        }
+        return copies;
+    }
+
+    private final class Shared<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // -1 once abandoned by all callers
+        private final AtomicInteger subscribers = new AtomicInteger();
+        private volatile CompletableFuture<T> running;
+
+        // running is set before the query starts, so a caller unsubscribing at any point
+        // can cancel it
+        private void start(String key, SqlCall<T> call) {
+            CompletableFuture<T> task = new CompletableFuture<>();
+            running = task;
+            task.whenComplete((value, error) -> {
+                inFlight.remove(key, this);
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            run(task, call::call, timeoutMillis);
+        }
+
+        private CompletableFuture<T> subscribe(UnaryOperator<T> copy) {
+            int n;
+            do {
+                n = subscribers.get();
+                if (n < 0) {
+                    return null;
+                }
+            } while (!subscribers.compareAndSet(n, n + 1));
+
+            CompletableFuture<T> view = result.thenApply(copy);
+            view.whenComplete((value, error) -> {
+                // The caller cancelled or timed out its own view before the query finished
+                if (error != null && !result.isDone()) {
+                    unsubscribe();
+                }
+            });
+            return view;
+        }
+
+        private void unsubscribe() {
+            if (subscribers.decrementAndGet() == 0 && subscribers.compareAndSet(0, -1)) {
+                CompletableFuture<T> task = running;
+                if (task != null) {
+                    task.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// StudentDAO with a read-through cache in front of getStudentById. Ids that do not exist
+// are cached too (for a shorter time) so repeated lookups of a bad id stay off the database.
+// Every write path must keep the cache current; new write methods belong here as well.
+// Writes by other processes bypass that, so students also expire after
+// STUDENT_CACHE_TTL_MS (60 s by default), bounding how long a changed row is served stale.
+// 0 keeps them until evicted, which is only safe when this process is the only writer.
+public class CachingStudentDAO extends StudentDAO {
+
+    private static final OperationMetrics CACHED_GET = DbMetrics.operation("CachingStudentDAO.getStudentById");
+
+    // Stands in for "no student with this id" inside the cache
+    private static final Student MISSING = new Student(0, null, null, 0, null);
+
+    private final LruCache<Integer, Student> cache;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    public CachingStudentDAO() {
+        this(DBConnection.envInt("STUDENT_CACHE_SIZE", 10_000),
+                DBConnection.envInt("STUDENT_CACHE_TTL_MS", 60_000),
+                DBConnection.envInt("STUDENT_CACHE_NEGATIVE_TTL_MS", 30_000));
+    }
+
+    public CachingStudentDAO(int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.cache = new LruCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    // Measured separately from StudentDAO.getStudentById, which only sees the misses
+    @Override
+    public Student getStudentById(int id) throws SQLException {
+        return CACHED_GET.measure(() -> readThrough(id), s -> s == null ? 0 : 1);
+    }
+
+    private Student readThrough(int id) throws SQLException {
+        Student cached = cache.get(id);
+        if (cached != null) {
+            return cached == MISSING ? null : copy(cached);
+        }
+        long version = cache.version();
+        Student s = super.getStudentById(id);
+        if (s != null) {
+            cache.putIfUnchanged(id, copy(s), ttlMillis, version);
+        } else if (negativeTtlMillis > 0) {
+            cache.putIfUnchanged(id, MISSING, negativeTtlMillis, version);
+        }
+        return s;
+    }
+
+    // Cached ids are answered from the cache; only the rest go to the database, in one call
+    @Override
+    public List<Student> getStudentsByIds(Collection<Integer> ids) throws SQLException {
+        List<Student> result = new ArrayList<>(ids.size());
+        List<Integer> misses = new ArrayList<>();
+        List<Integer> missPositions = new ArrayList<>();
+        for (Integer id : ids) {
+            Student cached = cache.get(id);
+            if (cached == null) {
+                misses.add(id);
+                missPositions.add(result.size());
+            }
+            result.add(cached == null || cached == MISSING ? null : copy(cached));
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+        long version = cache.version();
+        List<Student> loaded = super.getStudentsByIds(misses);
+        for (int i = 0; i < misses.size(); i++) {
+            Student s = loaded.get(i);
+            result.set(missPositions.get(i), s);
+            if (s != null) {
+                cache.putIfUnchanged(misses.get(i), copy(s), ttlMillis, version);
+            } else if (negativeTtlMillis > 0) {
+                cache.putIfUnchanged(misses.get(i), MISSING, negativeTtlMillis, version);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int addStudent(Student s) throws SQLException {
+        int id = super.addStudent(s);
+        writeThrough(s);
+        return id;
+    }
+
+    @Override
+    public List<Integer> addStudents(Iterable<Student> students, int batchSize) throws SQLException {
+        try {
+            List<Integer> ids = super.addStudents(students, batchSize);
+            // Bulk loads would flush the hot set, so only drop negative entries for the new ids
+            for (int id : ids) {
+                cache.invalidate(id);
+            }
+            return ids;
+        } catch (SQLException e) {
+            // Some batches may have committed before the failure
+            cache.invalidateAll();
+            throw e;
+        }
+    }
+
+    // Nothing is committed if it fails, so the cache only changes on success
+    @Override
+    public List<Integer> addStudentsAtomically(List<Student> students) throws SQLException {
+        List<Integer> ids = super.addStudentsAtomically(students);
+        for (int id : ids) {
+            cache.invalidate(id);
+        }
+        return ids;
+    }
+
+    // The cached copy would be a version behind, so it is replaced by what was written
+    @Override
+    public void updateStudent(Student s) throws SQLException {
+        try {
+            super.updateStudent(s);
+        } catch (StudentConflictException e) {
+            cache.invalidate(s.getId());
+            throw e;
+        }
+        writeThrough(s);
+    }
+
+    @Override
+    public int updateStudents(Collection<Student> students) throws SQLException {
+        try {
+            int updated = super.updateStudents(students);
+            for (Student s : students) {
+                cache.invalidate(s.getId());
+            }
+            return updated;
+        } catch (StudentConflictException e) {
+            // Nothing was written, but the conflicting rows are stale here as well
+            for (int id : e.getIds()) {
+                cache.invalidate(id);
+            }
+            throw e;
+        }
+    }
+
+    // Dropped rather than cached as missing; the next lookup records that
+    @Override
+    public int deleteByIds(Collection<Integer> ids) throws SQLException {
+        try {
+            return super.deleteByIds(ids);
+        } finally {
+            for (int id : ids) {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    // Rows changed by other clients would otherwise be served stale until they expire
+    @Override
+    public StudentDelta getStudentsChangedSince(StudentWatermark since, int limit) throws SQLException {
+        StudentDelta delta = super.getStudentsChangedSince(since, limit);
+        if (delta.isTruncated()) {
+            cache.invalidateAll();
+        } else {
+            for (Student s : delta.getChanged()) {
+                cache.invalidate(s.getId());
+            }
+        }
+        return delta;
+    }
+
+    public LruCache.CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public void invalidate(int id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Replaces any negative entry for the new id as well
+    private void writeThrough(Student s) {
+        if (s.getId() > 0) {
+            cache.invalidate(s.getId());
+            cache.put(s.getId(), copy(s), ttlMillis);
+        }
+    }
+
+    // Student is mutable, so callers never share the cached instance
+    private static Student copy(Student s) {
+        return new Student(s.getId(), s.getFirstName(), s.getLastName(), s.getAge(), s.getEmail(), s.getVersion());
+    }
+}
@@ -0,0 +1,507 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPool implements AutoCloseable, ConnectionPoolMXBean {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutMs;
+    private final long waitTimeoutMs;
+    private final long validationIntervalMs;
+
+    // Most recently returned connection sits at the head (LIFO keeps hot connections hot)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password,
+                          int maxSize, int minIdle, long idleTimeoutMs,
+                          long waitTimeoutMs, long validationIntervalMs) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(Math.max(minIdle, 0), maxSize);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMs / 2, 30_000));
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Opens connections up to minIdle so the first user action does not pay the handshake.
+    // The connections are opened in parallel and each is validated before it is pooled.
+    public void warmUp() throws SQLException {
+        int needed = 0;
+        while (!closed && total.get() < minIdle && idle.size() + needed < minIdle && reserveSlot()) {
+            needed++;
+        }
+        if (needed == 0) {
+            return;
+        }
+        List<SQLException> failures = new CopyOnWriteArrayList<>();
+        List<Thread> openers = new ArrayList<>(needed);
+        for (int i = 0; i < needed; i++) {
+            openers.add(Thread.ofVirtual().name("db-pool-warmup-" + i).start(() -> {
+                PooledConnection pc;
+                try {
+                    pc = open();
+                } catch (SQLException e) {
+                    total.decrementAndGet();
+                    failures.add(e);
+                    return;
+                }
+                boolean valid;
+                try {
+                    valid = pc.physical.isValid(5);
+                } catch (SQLException e) {
+                    valid = false;
+                }
+                if (valid) {
+                    idle.offerLast(pc);
+                } else {
+                    discard(pc);
+                    failures.add(new SQLException("New database connection failed validation"));
+                }
+            }));
+        }
+        try {
+            for (Thread opener : openers) {
+                opener.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while warming up the connection pool", e);
+        }
+        if (!failures.isEmpty()) {
+            SQLException first = failures.get(0);
+            for (int i = 1; i < failures.size(); i++) {
+                first.addSuppressed(failures.get(i));
+            }
+            throw first;
+        }
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(waitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + waitTimeoutMs + " ms waiting for a database connection ("
+                                + active.get() + " active, " + maxSize + " max)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+
+        PooledConnection pc;
+        try {
+            pc = takeValidIdle();
+            if (pc == null && reserveSlot()) {
+                try {
+                    pc = open();
+                } catch (SQLException e) {
+                    total.decrementAndGet();
+                    throw e;
+                }
+            }
+            if (pc == null) {
+                // Every slot is taken by connections warmUp() is about to hand to the idle queue
+                pc = idle.pollFirst(waitTimeoutMs, TimeUnit.MILLISECONDS);
+                if (pc == null) {
+                    timeouts.increment();
+                    throw new SQLTransientConnectionException("Timed out waiting for an idle database connection");
+                }
+            }
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        active.incrementAndGet();
+        long elapsed = System.nanoTime() - start;
+        borrowCount.increment();
+        borrowNanos.add(elapsed);
+        maxBorrowNanos.accumulateAndGet(elapsed, Math::max);
+        return pc.lease();
+    }
+
+    public PoolStats stats() {
+        long borrows = borrowCount.sum();
+        return new PoolStats(
+                total.get(),
+                active.get(),
+                idle.size(),
+                waiters.get(),
+                maxSize,
+                borrows,
+                borrows == 0 ? 0 : borrowNanos.sum() / borrows / 1000,
+                maxBorrowNanos.get() / 1000,
+                timeouts.sum(),
+                created.sum(),
+                evicted.sum()
+        );
+    }
+
+    @Override
+    public int getActive() {
+        return active.get();
+    }
+
+    @Override
+    public int getIdle() {
+        return idle.size();
+    }
+
+    @Override
+    public int getTotal() {
+        return total.get();
+    }
+
+    @Override
+    public int getWaiters() {
+        return waiters.get();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    @Override
+    public long getAvgBorrowMicros() {
+        long borrows = borrowCount.sum();
+        return borrows == 0 ? 0 : borrowNanos.sum() / borrows / 1000;
+    }
+
+    @Override
+    public long getMaxBorrowMicros() {
+        return maxBorrowNanos.get() / 1000;
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            discard(pc);
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = total.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (total.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (isUsable(pc)) {
+                return pc;
+            }
+            discard(pc);
+        }
+        return null;
+    }
+
+    // Validation costs a round trip, so only connections that sat idle for a while are pinged
+    private boolean isUsable(PooledConnection pc) {
+        if (System.currentTimeMillis() - pc.lastUsed < validationIntervalMs) {
+            return true;
+        }
+        try {
+            return pc.physical.isValid(5);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        created.increment();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pc) {
+        active.decrementAndGet();
+        try {
+            if (closed || pc.broken || !reset(pc.physical)) {
+                discard(pc);
+            } else {
+                pc.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pc);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Undo per-lease session changes so the next borrower gets a clean connection
+    private boolean reset(Connection c) {
+        try {
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        total.decrementAndGet();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+            // Connection is being thrown away anyway
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> expired = new ArrayList<>();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        int keep = idle.size();
+        while (it.hasNext() && keep > minIdle) {
+            PooledConnection pc = it.next();
+            if (now - pc.lastUsed > idleTimeoutMs && idle.removeLastOccurrence(pc)) {
+                expired.add(pc);
+                keep--;
+            }
+        }
+        for (PooledConnection pc : expired) {
+            evicted.increment();
+            discard(pc);
+        }
+        try {
+            warmUp();
+        } catch (SQLException e) {
+            // Database unreachable; the next borrow will surface the error
+        }
+    }
+
+    private static boolean isConnectionError(Throwable t) {
+        if (t instanceof SQLException sql) {
+            String state = sql.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+        return false;
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile boolean broken;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        // Each lease gets its own proxy so a stale handle cannot close someone else's lease
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private LeaseHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pc.physical + "]";
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (isConnectionError(cause)) {
+                    pc.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+
+    public static class PoolStats {
+        private final int total;
+        private final int active;
+        private final int idle;
+        private final int waiters;
+        private final int maxSize;
+        private final long borrowCount;
+        private final long avgBorrowMicros;
+        private final long maxBorrowMicros;
+        private final long timeouts;
+        private final long created;
+        private final long evicted;
+
+        PoolStats(int total, int active, int idle, int waiters, int maxSize, long borrowCount,
+                  long avgBorrowMicros, long maxBorrowMicros, long timeouts, long created, long evicted) {
+            this.total = total;
+            this.active = active;
+            this.idle = idle;
+            this.waiters = waiters;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.avgBorrowMicros = avgBorrowMicros;
+            this.maxBorrowMicros = maxBorrowMicros;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.evicted = evicted;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getWaiters() {
+            return waiters;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        public long getAvgBorrowMicros() {
+            return avgBorrowMicros;
+        }
+
+        public long getMaxBorrowMicros() {
+            return maxBorrowMicros;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getEvicted() {
+            return evicted;
+        }
+
+        @Override
+        public String toString() {
+            return "active=" + active + ", idle=" + idle + ", total=" + total + "/" + maxSize
+                    + ", waiters=" + waiters + ", borrows=" + borrowCount
+                    + ", avgBorrow=" + avgBorrowMicros + "µs, maxBorrow=" + maxBorrowMicros + "µs"
+                    + ", timeouts=" + timeouts + ", created=" + created + ", evicted=" + evicted;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+// JMX view of the connection pool
+public interface ConnectionPoolMXBean {
+    int getActive();
+
+    int getIdle();
+
+    int getTotal();
+
+    int getWaiters();
+
+    int getMaxSize();
+
+    long getBorrowCount();
+
+    long getAvgBorrowMicros();
+
+    long getMaxBorrowMicros();
+
+    long getTimeouts();
+}
@@ -0,0 +1,207 @@
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Streams a CSV file into the database in fixed-size batches, so memory use does not grow
+// with the file. Accepts "first_name,last_name,age,email" (optionally with an id column,
+// which is ignored) with or without a header row. Rows whose email is already taken, by an
+// existing student or an earlier row of the file, are rejected like invalid rows.
+public class CsvStudentImporter {
+
+    public interface Listener {
+        void onProgress(long bytesRead, long totalBytes, int imported, int rejected);
+
+        void onRejected(int line, String reason);
+    }
+
+    public static class Result {
+        private final int imported;
+        private final int rejected;
+
+        Result(int imported, int rejected) {
+            this.imported = imported;
+            this.rejected = rejected;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+    }
+
+    private static final String[] COLUMNS = {"first_name", "last_name", "age", "email"};
+
+    private final StudentDAO dao;
+    private final int batchSize;
+
+    public CsvStudentImporter(StudentDAO dao) {
+        this(dao, StudentDAO.DEFAULT_BATCH_SIZE);
+    }
+
+    public CsvStudentImporter(StudentDAO dao, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.dao = dao;
+        this.batchSize = batchSize;
+    }
+
+    // Stops between batches if the calling thread is interrupted; rows already committed stay.
+    public Result importFile(Path file, Listener listener) throws IOException, SQLException, InterruptedException {
+        long totalBytes = Files.size(file);
+        int imported = 0;
+        int rejected = 0;
+        List<Student> batch = new ArrayList<>(batchSize);
+        List<Integer> lines = new ArrayList<>(batchSize);
+
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+             CsvReader reader = new CsvReader(new InputStreamReader(counter, StandardCharsets.UTF_8))) {
+            int[] mapping = {0, 1, 2, 3};
+            List<String> record = reader.readRecord();
+            if (record != null && isHeader(record)) {
+                mapping = mapHeader(record);
+                record = reader.readRecord();
+            } else if (record != null && record.size() == COLUMNS.length + 1) {
+                mapping = new int[]{1, 2, 3, 4};
+            }
+
+            for (; record != null; record = reader.readRecord()) {
+                try {
+                    batch.add(StudentValidator.validate(
+                            column(record, mapping[0]),
+                            column(record, mapping[1]),
+                            column(record, mapping[2]),
+                            column(record, mapping[3])));
+                    lines.add(reader.getRecordLine());
+                } catch (IllegalArgumentException ex) {
+                    rejected++;
+                    listener.onRejected(reader.getRecordLine(), ex.getMessage());
+                }
+
+                if (batch.size() == batchSize) {
+                    int rows = batch.size();
+                    int added = flush(batch, lines, listener);
+                    imported += added;
+                    rejected += rows - added;
+                    listener.onProgress(counter.count, totalBytes, imported, rejected);
+                }
+            }
+            int rows = batch.size();
+            int added = flush(batch, lines, listener);
+            imported += added;
+            rejected += rows - added;
+            listener.onProgress(totalBytes, totalBytes, imported, rejected);
+        }
+        return new Result(imported, rejected);
+    }
+
+    // Returns the number of rows inserted; the rest were duplicates, already reported
+    private int flush(List<Student> batch, List<Integer> lines, Listener listener)
+            throws SQLException, InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Import cancelled");
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int count;
+        try {
+            count = dao.addStudents(batch, batchSize).size();
+        } catch (SQLException batchError) {
+            if (!StudentDAO.isDuplicateKey(batchError)) {
+                throw batchError;
+            }
+            // The batch was rolled back; insert its rows one by one to find the duplicates
+            count = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                Student s = batch.get(i);
+                try {
+                    dao.addStudent(s);
+                    count++;
+                } catch (SQLException e) {
+                    if (!StudentDAO.isDuplicateKey(e)) {
+                        throw e;
+                    }
+                    listener.onRejected(lines.get(i), "A student with email " + s.getEmail() + " already exists");
+                }
+            }
+        }
+        batch.clear();
+        lines.clear();
+        return count;
+    }
+
+    private static boolean isHeader(List<String> record) {
+        for (String value : record) {
+            String name = normalize(value);
+            for (String column : COLUMNS) {
+                if (column.equals(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int[] mapHeader(List<String> header) throws IOException {
+        int[] mapping = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            mapping[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (COLUMNS[i].equals(normalize(header.get(j)))) {
+                    mapping[i] = j;
+                }
+            }
+            if (mapping[i] < 0) {
+                throw new IOException("CSV header is missing column '" + COLUMNS[i] + "'");
+            }
+        }
+        return mapping;
+    }
+
+    private static String normalize(String headerValue) {
+        return headerValue.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace(' ', '_')
+                .replace("firstname", "first_name").replace("lastname", "last_name");
+    }
+
+    private static String column(List<String> record, int index) {
+        return index < record.size() ? record.get(index) : "";
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -1,13 +1,145 @@
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/StudentDB";
+    // Server-side prepared statements, cached per physical connection by the driver;
+    // batched inserts are rewritten into multi-row INSERTs. Text comes back as UTF-8, which
+    // StudentExporter relies on when it copies raw column bytes.
+    // DB_URL replaces the whole URL, e.g. to point benchmarks at an embedded database.
+    static final String DEFAULT_DATABASE = "jdbc:mysql://localhost:3306/StudentDB";
+    private static final String URL = envString("DB_URL", DEFAULT_DATABASE
+            + "?useServerPrepStmts=true&cachePrepStmts=true"
+            + "&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048"
+            + "&rewriteBatchedStatements=true&characterEncoding=UTF-8");
     private static final String USER = System.getenv("DB_USER");
     private static final String PASS = System.getenv("DB_PASSWORD");
 
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USER, PASS,
+            envInt("DB_POOL_MAX_SIZE", 10),
+            envInt("DB_POOL_MIN_IDLE", 2),
+            envInt("DB_POOL_IDLE_TIMEOUT_MS", 600_000),
+            envInt("DB_POOL_WAIT_TIMEOUT_MS", 5_000),
+            envInt("DB_POOL_VALIDATION_INTERVAL_MS", 1_000));
+
+    // Optional read replicas: DB_READ_URLS is a comma-separated list of JDBC URLs, logged in
+    // as DB_READ_USER / DB_READ_PASSWORD (default: the primary's credentials). Without it
+    // every read uses the primary pool.
+    private static final ReadReplicaRouter READS = createReadRouter();
+
+    private static final OperationMetrics GET_CONNECTION = DbMetrics.operation("DBConnection.getConnection");
+    private static final OperationMetrics GET_READ_CONNECTION = DbMetrics.operation("DBConnection.getReadConnection");
+
+    // Run at JVM shutdown while the pool can still hand out connections
+    private static final List<Runnable> SHUTDOWN_TASKS = new CopyOnWriteArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (int i = SHUTDOWN_TASKS.size() - 1; i >= 0; i--) {
+                try {
+                    SHUTDOWN_TASKS.get(i).run();
+                } catch (RuntimeException e) {
+                    System.err.println("Shutdown task failed: " + e.getMessage());
+                }
+            }
+            if (READS != null) {
+                READS.close();
+            }
+            POOL.close();
+        }, "db-pool-shutdown"));
+        DbMetrics.register("StudentDB:type=ConnectionPool", POOL);
+        if (READS != null) {
+            List<ConnectionPool> replicas = READS.getReplicaPools();
+            for (int i = 0; i < replicas.size(); i++) {
+                DbMetrics.register("StudentDB:type=ConnectionPool,name=replica-" + (i + 1), replicas.get(i));
+            }
+        }
+    }
+
+    // Callers close the returned connection as before; closing hands it back to the pool
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASS);
+        return GET_CONNECTION.measure(POOL::borrow, c -> 0);
+    }
+
+    // For queries that may run on a replica and can tolerate its replication lag
+    public static Connection getReadConnection() throws SQLException {
+        return GET_READ_CONNECTION.measure(() -> READS != null ? READS.getReadConnection() : POOL.borrow(), c -> 0);
+    }
+
+    // For writes: always the primary, and starts the read-your-writes window
+    // (DB_READ_YOUR_WRITES_MS) during which reads also go to the primary. The window is
+    // process-wide, so it covers every caller's reads, not just this one's.
+    public static Connection getWriteConnection() throws SQLException {
+        if (READS != null) {
+            READS.markWrite();
+        }
+        return getConnection();
+    }
+
+    public static void warmUp() throws SQLException {
+        POOL.warmUp();
+        if (READS != null) {
+            READS.warmUp();
+        }
+    }
+
+    // Replica health and read counts, or null without replicas
+    public static String describeReadRouting() {
+        return READS != null ? READS.toString() : null;
+    }
+
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return POOL.stats();
+    }
+
+    // For work that must reach the database before exit, such as queued writes. Tasks run
+    // newest first, so a component stops before the ones it was built on.
+    static void beforeShutdown(Runnable task) {
+        SHUTDOWN_TASKS.add(task);
+    }
+
+    private static ReadReplicaRouter createReadRouter() {
+        String urls = envString("DB_READ_URLS", null);
+        if (urls == null) {
+            return null;
+        }
+        List<String> replicaUrls = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                replicaUrls.add(url.trim());
+            }
+        }
+        if (replicaUrls.isEmpty()) {
+            return null;
+        }
+        return new ReadReplicaRouter(POOL, replicaUrls,
+                envString("DB_READ_USER", USER),
+                envString("DB_READ_PASSWORD", PASS),
+                envInt("DB_READ_POOL_MAX_SIZE", envInt("DB_POOL_MAX_SIZE", 10)),
+                envInt("DB_POOL_MIN_IDLE", 2),
+                envInt("DB_POOL_IDLE_TIMEOUT_MS", 600_000),
+                envInt("DB_POOL_WAIT_TIMEOUT_MS", 5_000),
+                envInt("DB_POOL_VALIDATION_INTERVAL_MS", 1_000),
+                envInt("DB_READ_HEALTH_CHECK_MS", 5_000),
+                envInt("DB_READ_YOUR_WRITES_MS", 2_000));
+    }
+
+    static String envString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    static int envInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 }
@@ -0,0 +1,73 @@
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Registry of per-operation database metrics. Every operation is also published over JMX
+// as StudentDB:type=Operation,name=<operation>, and calls slower than DB_SLOW_QUERY_MS
+// (disabled when unset or 0) are reported to the slow-query listener.
+public class DbMetrics {
+
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    private static volatile long slowQueryNanos = DBConnection.envInt("DB_SLOW_QUERY_MS", 0) * 1_000_000L;
+    private static volatile Consumer<String> slowQueryListener = System.err::println;
+
+    private DbMetrics() {
+    }
+
+    public static OperationMetrics operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, n -> {
+            OperationMetrics metrics = new OperationMetrics(n);
+            register("StudentDB:type=Operation,name=" + ObjectName.quote(n), metrics);
+            return metrics;
+        });
+    }
+
+    public static List<OperationMetrics> getOperations() {
+        List<OperationMetrics> list = new ArrayList<>(OPERATIONS.values());
+        list.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return list;
+    }
+
+    public static void resetAll() {
+        OPERATIONS.values().forEach(OperationMetrics::reset);
+    }
+
+    public static void setSlowQueryThresholdMillis(long millis) {
+        slowQueryNanos = millis * 1_000_000L;
+    }
+
+    public static long getSlowQueryThresholdMillis() {
+        return slowQueryNanos / 1_000_000L;
+    }
+
+    public static void setSlowQueryListener(Consumer<String> listener) {
+        slowQueryListener = listener;
+    }
+
+    static void register(String objectName, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        } catch (Exception e) {
+            // JMX is optional; the in-app diagnostics still work
+            System.err.println("Could not register MBean " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    static void checkSlow(OperationMetrics operation, long nanos, int rows, boolean failed) {
+        long threshold = slowQueryNanos;
+        if (threshold > 0 && nanos >= threshold) {
+            slowQueryListener.accept(String.format("Slow query: %s took %.1f ms (%d row(s)%s)",
+                    operation.getName(), nanos / 1_000_000.0, rows, failed ? ", failed" : ""));
+        }
+    }
+}
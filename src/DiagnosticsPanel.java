@@ -0,0 +1,146 @@
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Live view of DbMetrics, the connection pools, the student cache and the write-behind queue.
+// Refreshes once a second while it is on screen.
+public class DiagnosticsPanel extends JPanel {
+
+    private static final String[] COLUMNS = {"Operation", "Calls", "Errors", "Rows",
+            "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)", "Mean (ms)"};
+
+    private final StudentDAO dao;
+    private final StudentWriteBehindQueue writeBehind;
+    private final MetricsTableModel metricsModel = new MetricsTableModel();
+    private final JLabel lblPool = new JLabel();
+    private final JLabel lblReplicas = new JLabel();
+    private final JLabel lblCache = new JLabel();
+    private final JLabel lblWriteBehind = new JLabel();
+    private final Timer refreshTimer;
+
+    public DiagnosticsPanel(StudentDAO dao, StudentWriteBehindQueue writeBehind) {
+        super(new BorderLayout(5, 5));
+        this.dao = dao;
+        this.writeBehind = writeBehind;
+        setBackground(Color.WHITE);
+        setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createTitledBorder(
+                        BorderFactory.createLineBorder(new Color(0, 121, 107), 2),
+                        "Diagnostics",
+                        TitledBorder.LEFT,
+                        TitledBorder.TOP,
+                        new Font("SansSerif", Font.BOLD, 14),
+                        new Color(0, 121, 107)
+                ),
+                BorderFactory.createEmptyBorder(5, 5, 5, 5)
+        ));
+
+        JTable table = new JTable(metricsModel);
+        table.setRowHeight(22);
+        table.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        table.getColumnModel().getColumn(0).setPreferredWidth(240);
+
+        JButton btnReset = new JButton("Reset");
+        btnReset.addActionListener(e -> {
+            DbMetrics.resetAll();
+            refresh();
+        });
+
+        JPanel statsPanel = new JPanel(new GridLayout(4, 1, 5, 5));
+        statsPanel.setBackground(Color.WHITE);
+        lblPool.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        lblReplicas.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        lblCache.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        lblWriteBehind.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        statsPanel.add(lblPool);
+        statsPanel.add(lblReplicas);
+        statsPanel.add(lblCache);
+        statsPanel.add(lblWriteBehind);
+
+        JPanel south = new JPanel(new BorderLayout(5, 5));
+        south.setBackground(Color.WHITE);
+        south.add(statsPanel, BorderLayout.CENTER);
+        south.add(btnReset, BorderLayout.EAST);
+
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+
+        refreshTimer = new Timer(1000, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+    }
+
+    public void refresh() {
+        metricsModel.setOperations(DbMetrics.getOperations());
+        lblPool.setText("Pool:  " + DBConnection.getPoolStats());
+        String readRouting = DBConnection.describeReadRouting();
+        lblReplicas.setText("Reads: " + (readRouting != null ? readRouting : "primary only (DB_READ_URLS not set)"));
+        if (dao instanceof CachingStudentDAO) {
+            lblCache.setText("Cache: " + ((CachingStudentDAO) dao).getCacheStats());
+        } else {
+            lblCache.setText("Cache: disabled");
+        }
+        lblWriteBehind.setText("Write-behind: " + (writeBehind != null ? writeBehind : "disabled"));
+    }
+
+    private static class MetricsTableModel extends AbstractTableModel {
+        private List<OperationMetrics> operations = new ArrayList<>();
+
+        void setOperations(List<OperationMetrics> operations) {
+            this.operations = operations;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return operations.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            OperationMetrics m = operations.get(row);
+            switch (column) {
+                case 0:
+                    return m.getName();
+                case 1:
+                    return m.getCount();
+                case 2:
+                    return m.getErrors();
+                case 3:
+                    return m.getRows();
+                case 4:
+                    return millis(m.getP50Micros());
+                case 5:
+                    return millis(m.getP95Micros());
+                case 6:
+                    return millis(m.getP99Micros());
+                case 7:
+                    return millis(m.getMaxMicros());
+                case 8:
+                    return millis(m.getMeanMicros());
+                default:
+                    return null;
+            }
+        }
+
+        private static String millis(double micros) {
+            return String.format("%.2f", micros / 1000.0);
+        }
+    }
+}
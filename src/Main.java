@@ -1,12 +1,129 @@
 //TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
+import java.nio.file.Path;
+import java.util.List;
+
 public class Main{
     private static final String url = "jdbc:mysql://localhost:3306/StudentDB";
     private static final String USER = System.getenv("DB_USER");
     private static final String PASS = System.getenv("DB_PASSWORD");
 
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(runCommand(args));
+        }
         System.out.println(USER);
         System.out.println(PASS);
     }
+
+    private static int runCommand(String[] args) {
+        try {
+            if (SchemaMigrator.isEnabled()) {
+                List<Integer> applied = SchemaMigrator.migrate();
+                if (!applied.isEmpty()) {
+                    System.out.println("Applied schema migration(s) " + applied + ".");
+                }
+            }
+            switch (args[0]) {
+                case "migrate":
+                    System.out.println("Schema is at version " + SchemaMigrator.latestVersion() + ".");
+                    return 0;
+                case "import":
+                    return importCsv(args);
+                case "export":
+                    return export(args);
+                case "serve":
+                    return serve(args);
+                default:
+                    printUsage();
+                    return 2;
+            }
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    // java Main import <file.csv> [batchSize]
+    private static int importCsv(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsage();
+            return 2;
+        }
+        Path file = Path.of(args[1]);
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : StudentDAO.DEFAULT_BATCH_SIZE;
+        CsvStudentImporter importer = new CsvStudentImporter(new StudentDAO(), batchSize);
+
+        long start = System.nanoTime();
+        CsvStudentImporter.Result result = importer.importFile(file, new CsvStudentImporter.Listener() {
+            private int lastPercent = -1;
+
+            @Override
+            public void onProgress(long bytesRead, long totalBytes, int imported, int rejected) {
+                int percent = totalBytes == 0 ? 100 : (int) (bytesRead * 100 / totalBytes);
+                if (percent != lastPercent) {
+                    lastPercent = percent;
+                    System.out.printf("\r%3d%%  imported=%d rejected=%d", percent, imported, rejected);
+                }
+            }
+
+            @Override
+            public void onRejected(int line, String reason) {
+                System.err.println("\nLine " + line + " skipped: " + reason);
+            }
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println();
+        System.out.println("Imported " + result.getImported() + " student(s), "
+                + result.getRejected() + " row(s) rejected in " + millis + " ms.");
+        return result.getRejected() == 0 ? 0 : 3;
+    }
+
+    // java Main export <file.csv|file.jsonl>[.gz]
+    private static int export(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsage();
+            return 2;
+        }
+        Path file = Path.of(args[1]);
+        StudentExporter exporter = new StudentExporter(new StudentDAO());
+
+        long start = System.nanoTime();
+        long rows = exporter.exportTo(file, new StudentExporter.Listener() {
+            private int lastPercent = -1;
+
+            @Override
+            public void onProgress(long rowsWritten, long totalRows) {
+                int percent = totalRows == 0 ? 100 : (int) (rowsWritten * 100 / totalRows);
+                if (percent != lastPercent) {
+                    lastPercent = percent;
+                    System.out.printf("\r%3d%%  exported=%d", percent, rowsWritten);
+                }
+            }
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println();
+        System.out.println("Exported " + rows + " student(s) to " + file + " in " + millis + " ms.");
+        return 0;
+    }
+
+    // java Main serve [port]; runs until the process is stopped
+    private static int serve(String[] args) throws Exception {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DBConnection.envInt("API_PORT", 8080);
+        StudentApiServer server = StudentApiServer.fromEnvironment(port);
+        DBConnection.beforeShutdown(server::close);
+        server.start();
+        DBConnection.warmUp();
+        System.out.println("Serving the student API on port " + server.getPort() + ".");
+        Thread.currentThread().join();
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage:");
+        System.err.println("  java Main migrate");
+        System.err.println("  java Main import <file.csv> [batchSize]");
+        System.err.println("  java Main export <file.csv|file.jsonl>[.gz]");
+        System.err.println("  java Main serve [port]");
+    }
 }
@@ -0,0 +1,97 @@
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+// Call count, errors, rows and a latency histogram for one database operation
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private final String name;
+    private final Histogram latencyNanos = new Histogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    // Runs the call and records its latency, its row count and whether it failed
+    public <T> T measure(SqlCall<T> call, ToIntFunction<T> rowCounter) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        int rowCount = 0;
+        try {
+            T result = call.call();
+            rowCount = rowCounter.applyAsInt(result);
+            failed = false;
+            return result;
+        } finally {
+            record(System.nanoTime() - start, rowCount, failed);
+        }
+    }
+
+    public void record(long nanos, int rowCount, boolean failed) {
+        latencyNanos.record(nanos);
+        rows.add(rowCount);
+        if (failed) {
+            errors.increment();
+        }
+        DbMetrics.checkSlow(this, nanos, rowCount, failed);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latencyNanos.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return micros(latencyNanos.getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getP95Micros() {
+        return micros(latencyNanos.getValueAtPercentile(95));
+    }
+
+    @Override
+    public long getP99Micros() {
+        return micros(latencyNanos.getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return micros(latencyNanos.getMax());
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latencyNanos.getMean() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        latencyNanos.reset();
+        errors.reset();
+        rows.reset();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,22 @@
+// JMX view of one instrumented database operation; times are in microseconds
+public interface OperationMetricsMXBean {
+    String getName();
+
+    long getCount();
+
+    long getErrors();
+
+    long getRows();
+
+    long getP50Micros();
+
+    long getP95Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+
+    double getMeanMicros();
+
+    void reset();
+}
@@ -0,0 +1,243 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Virtual table over the whole students table. Only the row count is known up front;
+// pages are fetched with keyset queries when the JTable first asks for one of their
+// rows, and at most maxCachedPages pages are kept in memory.
+// All state is confined to the EDT; only the queries run on virtual threads. Fetches for
+// pages the user has scrolled far away from are cancelled. After a reset from a watermark,
+// applyDelta merges later inserts and updates without reloading; deletes need a reload.
+public class PagedStudentTableModel extends StudentTableModel {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_CACHED_PAGES = 50;
+
+    private final AsyncStudentDAO dao;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final Consumer<Exception> errorHandler;
+
+    private final Map<Integer, List<Student>> pages;
+    // Last id of every page seen so far; kept after the page itself is evicted so that
+    // revisiting a page never needs an OFFSET query
+    private final Map<Integer, Integer> pageLastIds = new HashMap<>();
+    // In-flight fetches; a failed one stays here until reset() so repaints do not retry it
+    private final Map<Integer, CompletableFuture<List<Student>>> pending = new HashMap<>();
+
+    private int rowCount;
+    private int generation;
+    private StudentWatermark watermark;
+
+    public PagedStudentTableModel(AsyncStudentDAO dao, Consumer<Exception> errorHandler) {
+        this(dao, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES, errorHandler);
+    }
+
+    public PagedStudentTableModel(AsyncStudentDAO dao, int pageSize, int maxCachedPages,
+                                  Consumer<Exception> errorHandler) {
+        this.dao = dao;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        this.errorHandler = errorHandler;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Student>> eldest) {
+                return size() > PagedStudentTableModel.this.maxCachedPages;
+            }
+        };
+    }
+
+    // Full reload from a watermark; later changes can then be merged with applyDelta
+    public void reset(StudentWatermark watermark) {
+        reset(watermark.getRowCount());
+        this.watermark = watermark;
+    }
+
+    // Drops all cached pages and shows rowCount rows that will be fetched on demand
+    public void reset(int rowCount) {
+        watermark = null;
+        generation++;
+        pages.clear();
+        pageLastIds.clear();
+        pending.values().forEach(f -> f.cancel(true));
+        pending.clear();
+        this.rowCount = rowCount;
+        fireTableDataChanged();
+    }
+
+    // Fills a page with rows fetched elsewhere, e.g. the first page prefetched at startup
+    public void preload(int page, List<Student> rows) {
+        pages.put(page, rows);
+        if (!rows.isEmpty()) {
+            pageLastIds.put(page, rows.get(rows.size() - 1).getId());
+        }
+        int first = page * pageSize;
+        int last = Math.min(first + pageSize, rowCount) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    // null unless the model was last reset from a watermark
+    public StudentWatermark getWatermark() {
+        return watermark;
+    }
+
+    // Merges changes in place: updated rows in cached pages are replaced and new rows are
+    // appended, with row-level events so selection and scroll position are kept. Returns
+    // false if the delta cannot be merged and the caller should reload instead: it was
+    // truncated, or the table's row count shows rows were deleted (or a row below the old
+    // watermark's id committed late), which a delta cannot express.
+    public boolean applyDelta(StudentDelta delta) {
+        if (watermark == null || delta.isTruncated()) {
+            return false;
+        }
+        int inserted = 0;
+        for (Student s : delta.getChanged()) {
+            if (delta.isInserted(s)) {
+                inserted++;
+            }
+        }
+        if (delta.getWatermark().getRowCount() != rowCount + inserted) {
+            return false;
+        }
+        for (Student s : delta.getChanged()) {
+            if (!delta.isInserted(s)) {
+                replaceCached(s);
+            }
+        }
+        watermark = delta.getWatermark();
+        if (inserted > 0) {
+            appendRows(inserted);
+        }
+        return true;
+    }
+
+    // Swaps in the given versions of students in cached pages, e.g. after saving edits.
+    // Students on pages that are not cached are picked up when the page is fetched.
+    public void replaceStudents(List<Student> updated) {
+        for (Student s : updated) {
+            replaceCached(s);
+        }
+    }
+
+    private void replaceCached(Student s) {
+        for (Map.Entry<Integer, List<Student>> entry : pages.entrySet()) {
+            List<Student> rows = entry.getValue();
+            if (rows.isEmpty() || s.getId() < rows.get(0).getId() || s.getId() > rows.get(rows.size() - 1).getId()) {
+                continue;
+            }
+            int index = binarySearch(rows, s.getId());
+            if (index >= 0) {
+                rows.set(index, s);
+                int row = entry.getKey() * pageSize + index;
+                fireTableRowsUpdated(row, row);
+            }
+            return;
+        }
+    }
+
+    private void appendRows(int count) {
+        int oldCount = rowCount;
+        // A partly filled last page now has more rows and must be fetched again
+        if (oldCount % pageSize != 0) {
+            int tail = oldCount / pageSize;
+            pages.remove(tail);
+            pageLastIds.remove(tail);
+            CompletableFuture<List<Student>> fetch = pending.remove(tail);
+            if (fetch != null) {
+                fetch.cancel(true);
+            }
+            fireTableRowsUpdated(tail * pageSize, oldCount - 1);
+        }
+        rowCount += count;
+        fireTableRowsInserted(oldCount, rowCount - 1);
+    }
+
+    private static int binarySearch(List<Student> rows, int id) {
+        int low = 0;
+        int high = rows.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = rows.get(mid).getId();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public Student getStudentAt(int row) {
+        int page = row / pageSize;
+        List<Student> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int index = row % pageSize;
+        return index < rows.size() ? rows.get(index) : null;
+    }
+
+    private void requestPage(int page) {
+        if (pending.containsKey(page)) {
+            return;
+        }
+        cancelDistantPages(page);
+
+        int requestGeneration = generation;
+        Integer knownAnchor = page == 0 ? Integer.valueOf(0) : pageLastIds.get(page - 1);
+        CompletableFuture<List<Student>> fetch = knownAnchor != null
+                ? dao.getStudentsAfter(knownAnchor, pageSize)
+                : dao.getIdAtOffset(page * pageSize - 1).thenCompose(anchor -> anchor < 0
+                        ? CompletableFuture.completedFuture(List.of())
+                        : dao.getStudentsAfter(anchor, pageSize));
+        pending.put(page, fetch);
+
+        SwingAsync.onEdt(fetch, rows -> {
+            // Superseded by a reset, or dropped because the page changed or scrolled away
+            if (requestGeneration != generation || pending.get(page) != fetch) {
+                return;
+            }
+            pending.remove(page);
+            pages.put(page, rows);
+            if (!rows.isEmpty()) {
+                pageLastIds.put(page, rows.get(rows.size() - 1).getId());
+            }
+            int first = page * pageSize;
+            int last = Math.min(first + pageSize, rowCount) - 1;
+            if (first <= last) {
+                fireTableRowsUpdated(first, last);
+            }
+        }, error -> {
+            if (requestGeneration == generation && pending.get(page) == fetch) {
+                errorHandler.accept(error instanceof Exception ? (Exception) error : new RuntimeException(error));
+            }
+        });
+    }
+
+    // Fast scrolling requests many pages in passing; only those near the viewport matter
+    private void cancelDistantPages(int page) {
+        Iterator<Map.Entry<Integer, CompletableFuture<List<Student>>>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, CompletableFuture<List<Student>>> entry = it.next();
+            if (Math.abs(entry.getKey() - page) > maxCachedPages && !entry.getValue().isDone()) {
+                entry.getValue().cancel(true);
+                it.remove();
+            }
+        }
+    }
+}
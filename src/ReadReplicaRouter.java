@@ -0,0 +1,167 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Spreads read connections round-robin over replica pools. A replica that fails to hand
+// out a connection is taken out of rotation until the background health check finds it
+// working again; with no healthy replica, reads go to the primary. For readYourWritesMillis
+// after a write connection is taken, reads go to the primary as well, so a user sees their
+// own insert even if the replicas lag behind.
+//
+// The window is global, not per caller: any write sends every thread's reads to the
+// primary. It cannot be per thread, because the async facade runs each call on a new
+// virtual thread, so the read after a write is never on the writer's thread. Being global
+// only ever sends extra reads to the primary, never a stale read to a replica. In the
+// desktop app, one user does all the writing, so nothing is lost. In the API server, a
+// steady stream of writes from any client keeps all reads on the primary; lower
+// DB_READ_YOUR_WRITES_MS there if the primary needs the relief.
+public class ReadReplicaRouter implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    private final LongAdder primaryReads = new LongAdder();
+    private volatile long lastWriteNanos;
+    private volatile boolean wroteRecently;
+
+    public ReadReplicaRouter(ConnectionPool primary, List<String> replicaUrls, String user, String password,
+                             int maxSize, int minIdle, long idleTimeoutMs, long waitTimeoutMs,
+                             long validationIntervalMs, long healthCheckIntervalMs, long readYourWritesMillis) {
+        this.primary = primary;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            ConnectionPool pool = new ConnectionPool(replicaUrls.get(i), user, password,
+                    maxSize, minIdle, idleTimeoutMs, waitTimeoutMs, validationIntervalMs);
+            replicas.add(new Replica("replica-" + (i + 1), pool));
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-replica-health");
+            t.setDaemon(true);
+            return t;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth,
+                healthCheckIntervalMs, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getReadConnection() throws SQLException {
+        if (readYourWritesNanos > 0 && wroteRecently) {
+            if (System.nanoTime() - lastWriteNanos < readYourWritesNanos) {
+                primaryReads.increment();
+                return primary.borrow();
+            }
+            wroteRecently = false;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection conn = replica.pool.borrow();
+                replica.reads.increment();
+                return conn;
+            } catch (SQLTransientConnectionException e) {
+                // Busy rather than broken; try the next one
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        primaryReads.increment();
+        return primary.borrow();
+    }
+
+    // Starts the read-your-writes window for all callers (see above)
+    public void markWrite() {
+        lastWriteNanos = System.nanoTime();
+        wroteRecently = true;
+    }
+
+    public void warmUp() {
+        for (Replica replica : replicas) {
+            try {
+                replica.pool.warmUp();
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    public List<ConnectionPool> getReplicaPools() {
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (Replica replica : replicas) {
+            pools.add(replica.pool);
+        }
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Replica replica : replicas) {
+            sb.append(replica.name).append(replica.healthy ? " up" : " DOWN")
+                    .append(" reads=").append(replica.reads.sum())
+                    .append(" active=").append(replica.pool.getActive()).append(", ");
+        }
+        return sb.append("primary reads=").append(primaryReads.sum()).toString();
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.pool.borrow()) {
+                if (conn.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    if (!replica.healthy) {
+                        System.err.println("Read replica " + replica.name + " is back in rotation");
+                    }
+                    replica.healthy = true;
+                } else {
+                    markDown(replica, null);
+                }
+            } catch (SQLTransientConnectionException e) {
+                // Pool busy: the replica is clearly serving reads
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            System.err.println("Read replica " + replica.name + " taken out of rotation"
+                    + (cause != null ? ": " + cause.getMessage() : ""));
+        }
+        replica.healthy = false;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final ConnectionPool pool;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean healthy = true;
+
+        private Replica(String name, ConnectionPool pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writes log lines to a file on its own thread, so callers never wait for the disk. When the
+// file passes maxBytes it becomes file.1, file.1 becomes file.2 and so on, keeping at most
+// maxFiles old files. If the writer falls too far behind, lines are dropped and the number
+// dropped is written once it catches up.
+public class RotatingLogAppender implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int DRAIN_BATCH = 1024;
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean closed;
+    private Writer writer;
+    private long size;
+
+    public RotatingLogAppender(Path file, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        writerThread = new Thread(this::run, "status-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // null unless STATUS_LOG_FILE is set; rotates at STATUS_LOG_MAX_KB and keeps STATUS_LOG_FILES old files
+    public static RotatingLogAppender fromEnvironment() {
+        String path = DBConnection.envString("STATUS_LOG_FILE", "");
+        if (path.isEmpty()) {
+            return null;
+        }
+        RotatingLogAppender appender = new RotatingLogAppender(Path.of(path),
+                DBConnection.envInt("STATUS_LOG_MAX_KB", 10_240) * 1024L,
+                DBConnection.envInt("STATUS_LOG_FILES", 5));
+        DBConnection.beforeShutdown(appender::close);
+        return appender;
+    }
+
+    // Never blocks; the line should not end with a newline
+    public void append(String line) {
+        if (closed || !queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    // Writes what is queued, then stops the writer thread
+    @Override
+    public void close() {
+        closed = true;
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<String> lines = new ArrayList<>(DRAIN_BATCH);
+        long reportedDrops = 0;
+        try {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    String first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    lines.add(first);
+                } catch (InterruptedException e) {
+                    // close() wakes us up; whatever is left is written below
+                }
+                queue.drainTo(lines, DRAIN_BATCH - lines.size());
+                long drops = dropped.get();
+                if (drops > reportedDrops) {
+                    lines.add("[status log] " + (drops - reportedDrops) + " line(s) dropped, writer fell behind");
+                    reportedDrops = drops;
+                }
+                if (lines.isEmpty()) {
+                    continue;
+                }
+                write(lines);
+                lines.clear();
+            }
+        } catch (IOException e) {
+            System.err.println("Status log file disabled: " + e.getMessage());
+            closed = true;
+            queue.clear();
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private void write(List<String> lines) throws IOException {
+        if (writer == null) {
+            open();
+        }
+        for (String line : lines) {
+            writer.write(line);
+            writer.write(System.lineSeparator());
+            // Close enough for deciding when to rotate; a status line is mostly ASCII
+            size += line.length() + System.lineSeparator().length();
+        }
+        writer.flush();
+        if (size >= maxBytes) {
+            closeWriter();
+            rotate();
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // A FileOutputStream rather than a channel, which close()'s interrupt would close mid-write
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file.toFile(), true), StandardCharsets.UTF_8));
+        size = Files.size(file);
+    }
+
+    private void rotate() throws IOException {
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Could not close status log file: " + e.getMessage());
+        }
+        writer = null;
+    }
+}
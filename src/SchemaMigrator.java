@@ -0,0 +1,164 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Brings the database schema up to date at startup. Migrations are numbered and applied in
+// order, each at most once; applied versions are recorded in schema_version. New schema
+// changes are appended to MIGRATIONS with the next number and never edited once released.
+//
+// Deployments that were set up from db.sql, or patched by hand, may already have some of
+// these objects. A statement failing only because its table, column or index already
+// exists counts as applied.
+public class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create students table",
+                    "CREATE TABLE IF NOT EXISTS students ("
+                            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                            + "first_name VARCHAR(50), "
+                            + "last_name VARCHAR(50), "
+                            + "age INT, "
+                            + "email VARCHAR(100))"),
+            new Migration(2, "Track changes with updated_at",
+                    "ALTER TABLE students ADD COLUMN updated_at TIMESTAMP(3) NOT NULL "
+                            + "DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)",
+                    "CREATE INDEX idx_students_updated_at ON students (updated_at)"),
+            new Migration(3, "Index lookups by email and by name",
+                    "CREATE UNIQUE INDEX uq_students_email ON students (email)",
+                    "CREATE INDEX idx_students_last_first ON students (last_name, first_name)"),
+            new Migration(4, "Optimistic locking with a row version",
+                    "ALTER TABLE students ADD COLUMN version INT NOT NULL DEFAULT 0")
+    );
+
+    // MySQL error codes for objects that already exist
+    private static final int ER_TABLE_EXISTS = 1050;
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private static final String LOCK_NAME = "StudentDB.schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    // Applies every pending migration and returns the versions applied by this call.
+    // Serialized across processes with a MySQL named lock, so several instances starting
+    // together do not race each other.
+    public static List<Integer> migrate() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            lock(conn);
+            try {
+                return migrateUnlocked(conn);
+            } finally {
+                unlock(conn);
+            }
+        }
+    }
+
+    // Without the named lock, for a database only this process uses: the benchmarks'
+    // embedded database has no GET_LOCK
+    static List<Integer> migrateUnlocked(Connection conn) throws SQLException {
+        List<Integer> applied = new ArrayList<>();
+        createVersionTable(conn);
+        int current = currentVersion(conn);
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version > current) {
+                apply(conn, migration);
+                applied.add(migration.version);
+            }
+        }
+        return applied;
+    }
+
+    // DB_MIGRATE=false leaves the schema alone, e.g. when the app user may not run DDL
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(DBConnection.envString("DB_MIGRATE", "true"));
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    // MySQL commits DDL implicitly, so a migration is not atomic; each statement must be
+    // safe to run again after a partial failure, which the "already exists" rule provides
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String sql : migration.statements) {
+                try {
+                    st.execute(sql);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == ER_DUP_ENTRY) {
+                        throw new SQLException("Migration " + migration.version + " (" + migration.description
+                                + ") failed: existing rows violate the new unique index. "
+                                + "Resolve the duplicates and restart. " + e.getMessage(), e.getSQLState(), e);
+                    }
+                    if (!alreadyExists(e)) {
+                        throw new SQLException("Migration " + migration.version + " (" + migration.description
+                                + ") failed: " + e.getMessage(), e.getSQLState(), e);
+                    }
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            ps.setInt(1, migration.version);
+            ps.setString(2, migration.description);
+            ps.executeUpdate();
+        }
+    }
+
+    private static boolean alreadyExists(SQLException e) {
+        int code = e.getErrorCode();
+        return code == ER_TABLE_EXISTS || code == ER_DUP_FIELDNAME || code == ER_DUP_KEYNAME;
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String[] statements;
+
+        private Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// Table over an in-memory StudentSnapshot; cells are read straight from the columns
+public class SnapshotStudentTableModel extends StudentTableModel {
+
+    private StudentSnapshot snapshot = StudentSnapshot.empty();
+
+    public void setSnapshot(StudentSnapshot snapshot) {
+        this.snapshot = snapshot;
+        fireTableDataChanged();
+    }
+
+    public StudentSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public int getRowCount() {
+        return snapshot.size();
+    }
+
+    @Override
+    public StudentRows getLoadedRows() {
+        return snapshot;
+    }
+
+    // Snapshots do not carry row versions
+    @Override
+    protected boolean supportsEditing() {
+        return false;
+    }
+
+    @Override
+    public Student getStudentAt(int row) {
+        return snapshot.getStudent(row);
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0:
+                return snapshot.getId(row);
+            case 1:
+                return snapshot.getFirstName(row);
+            case 2:
+                return snapshot.getLastName(row);
+            case 3:
+                return snapshot.getAge(row);
+            case 4:
+                return snapshot.getEmail(row);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+import java.sql.SQLException;
+
+// A unit of database work that can be passed around as a lambda
+@FunctionalInterface
+public interface SqlCall<T> {
+    T call() throws SQLException;
+}
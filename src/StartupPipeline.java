@@ -0,0 +1,110 @@
+import java.sql.DriverManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Database side of application startup, started from main() so it runs while Swing is
+// still building the window:
+//   1. load the JDBC driver and set up the connection pool
+//   2. then, in parallel, open and validate the pool's first connections and apply the
+//      schema migrations
+//   3. once the schema is current, fetch the watermark (row count) and the first page of
+//      students together
+// Every step is marked with its time since JVM start; the UI adds its own marks and
+// reports them once it is interactive.
+public class StartupPipeline {
+
+    private final long jvmStartMillis = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli).orElse(System.currentTimeMillis());
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final StudentDAO dao = new StudentDAO();
+
+    private final CompletableFuture<Void> driver;
+    private final CompletableFuture<ConnectionPool.PoolStats> pool;
+    private final CompletableFuture<List<Integer>> schema;
+    private final CompletableFuture<StudentWatermark> watermark;
+    private final CompletableFuture<List<Student>> firstPage;
+
+    private StartupPipeline(int firstPageSize, boolean prefetch) {
+        mark("main");
+        driver = step("JDBC driver loaded", () -> {
+            DriverManager.getDrivers();
+            DBConnection.getPoolStats();
+            return null;
+        });
+        pool = driver.thenCompose(ignored -> step("connection pool ready", () -> {
+            DBConnection.warmUp();
+            return DBConnection.getPoolStats();
+        }));
+        schema = driver.thenCompose(ignored -> SchemaMigrator.isEnabled()
+                ? step("schema migrated", SchemaMigrator::migrate)
+                : CompletableFuture.<List<Integer>>completedFuture(List.of()));
+        // The prefetch goes ahead even if a migration failed; the UI reports that failure
+        CompletableFuture<Void> schemaSettled = schema.handle((applied, error) -> null);
+        watermark = prefetch ? schemaSettled.thenCompose(ignored -> step("row count fetched", dao::getWatermark)) : null;
+        firstPage = prefetch
+                ? schemaSettled.thenCompose(ignored -> step("first page fetched", () -> dao.getStudentsAfter(0, firstPageSize)))
+                : null;
+    }
+
+    // Without prefetch (e.g. the UI starts from its local snapshot) only steps 1 and 2 run
+    public static StartupPipeline start(int firstPageSize, boolean prefetch) {
+        return new StartupPipeline(firstPageSize, prefetch);
+    }
+
+    // Pool statistics once the first connections are open
+    public CompletableFuture<ConnectionPool.PoolStats> getPool() {
+        return pool;
+    }
+
+    // Versions applied by the migration
+    public CompletableFuture<List<Integer>> getSchema() {
+        return schema;
+    }
+
+    // null without prefetch
+    public CompletableFuture<StudentWatermark> getWatermark() {
+        return watermark;
+    }
+
+    // null without prefetch
+    public CompletableFuture<List<Student>> getFirstPage() {
+        return firstPage;
+    }
+
+    public synchronized void mark(String phase) {
+        marks.putIfAbsent(phase, System.currentTimeMillis() - jvmStartMillis);
+    }
+
+    // "main 80 ms, JDBC driver loaded 210 ms, ..." in the order the phases finished
+    public synchronized String report() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(marks.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : entries) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(entry.getKey()).append(' ').append(entry.getValue()).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    private <T> CompletableFuture<T> step(String phase, SqlCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                T value = call.call();
+                mark(phase);
+                result.complete(value);
+            } catch (Throwable t) {
+                mark(phase + " (failed)");
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,152 @@
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.Map;
+
+// Table-wide statistics from StudentDAO.getStatistics: the database does the counting, so
+// this stays fast however many students there are. Loads the first time it is shown and
+// again on Refresh.
+public class StatisticsPanel extends JPanel {
+
+    private static final int AGE_BUCKET_WIDTH = 5;
+    private static final int TOP_DOMAINS = 10;
+
+    private final AsyncStudentDAO dao;
+    private final JLabel lblSummary = new JLabel("Not loaded yet.");
+    private final JLabel lblTiming = new JLabel(" ");
+    private final AgeHistogramChart chart = new AgeHistogramChart();
+    private final DefaultTableModel domainsModel = new DefaultTableModel(new Object[]{"Email Domain", "Students"}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private final JButton btnRefresh = new JButton("Refresh");
+    private boolean loaded;
+
+    public StatisticsPanel(AsyncStudentDAO dao) {
+        super(new BorderLayout(5, 5));
+        this.dao = dao;
+        setBackground(Color.WHITE);
+        setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createTitledBorder(
+                        BorderFactory.createLineBorder(new Color(63, 81, 181), 2),
+                        "Statistics",
+                        TitledBorder.LEFT,
+                        TitledBorder.TOP,
+                        new Font("SansSerif", Font.BOLD, 14),
+                        new Color(63, 81, 181)
+                ),
+                BorderFactory.createEmptyBorder(5, 5, 5, 5)
+        ));
+
+        lblSummary.setFont(new Font("SansSerif", Font.BOLD, 13));
+        lblTiming.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        btnRefresh.addActionListener(e -> refresh());
+
+        JPanel north = new JPanel(new BorderLayout(5, 5));
+        north.setBackground(Color.WHITE);
+        north.add(lblSummary, BorderLayout.CENTER);
+        north.add(btnRefresh, BorderLayout.EAST);
+        north.add(lblTiming, BorderLayout.SOUTH);
+
+        JTable domainsTable = new JTable(domainsModel);
+        domainsTable.setRowHeight(22);
+        JScrollPane domainsScroll = new JScrollPane(domainsTable);
+        domainsScroll.setPreferredSize(new Dimension(280, 0));
+
+        JPanel center = new JPanel(new BorderLayout(5, 5));
+        center.setBackground(Color.WHITE);
+        center.add(chart, BorderLayout.CENTER);
+        center.add(domainsScroll, BorderLayout.EAST);
+
+        add(north, BorderLayout.NORTH);
+        add(center, BorderLayout.CENTER);
+
+        addHierarchyListener(e -> {
+            if (!loaded && isShowing()) {
+                refresh();
+            }
+        });
+    }
+
+    public void refresh() {
+        loaded = true;
+        btnRefresh.setEnabled(false);
+        lblTiming.setText("Loading...");
+        long start = System.nanoTime();
+        SwingAsync.onEdt(dao.getStatistics(AGE_BUCKET_WIDTH, TOP_DOMAINS), stats -> {
+            btnRefresh.setEnabled(true);
+            show(stats, (System.nanoTime() - start) / 1_000_000);
+        }, error -> {
+            btnRefresh.setEnabled(true);
+            lblTiming.setText("❌ Error loading statistics: " + error.getMessage());
+        });
+    }
+
+    private void show(StudentStatistics stats, long millis) {
+        if (stats.getCount() == 0) {
+            lblSummary.setText("No students yet.");
+        } else {
+            lblSummary.setText(String.format("Students: %,d    Age: min %d, max %d, average %.1f",
+                    stats.getCount(), stats.getMinAge(), stats.getMaxAge(), stats.getAverageAge()));
+        }
+        lblTiming.setText("Computed by the database in " + millis + " ms");
+        chart.setHistogram(stats.getAgeHistogram(), stats.getAgeBucketWidth());
+        domainsModel.setRowCount(0);
+        for (Map.Entry<String, Long> entry : stats.getTopEmailDomains().entrySet()) {
+            domainsModel.addRow(new Object[]{entry.getKey(), entry.getValue()});
+        }
+    }
+
+    // Vertical bars, one per age bucket
+    private static class AgeHistogramChart extends JComponent {
+        private Map<Integer, Long> histogram = Map.of();
+        private int bucketWidth = 1;
+
+        AgeHistogramChart() {
+            setPreferredSize(new Dimension(400, 250));
+        }
+
+        void setHistogram(Map<Integer, Long> histogram, int bucketWidth) {
+            this.histogram = histogram;
+            this.bucketWidth = bucketWidth;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setFont(new Font("SansSerif", Font.PLAIN, 10));
+            FontMetrics fm = g2.getFontMetrics();
+
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString("Students by age", 5, fm.getAscent());
+            if (histogram.isEmpty()) {
+                g2.dispose();
+                return;
+            }
+            long max = histogram.values().stream().mapToLong(Long::longValue).max().orElse(1);
+            int top = fm.getHeight() * 2;
+            int bottom = getHeight() - fm.getHeight() - 5;
+            int slot = Math.max(1, (getWidth() - 10) / histogram.size());
+            int x = 5;
+            for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+                int height = (int) ((bottom - top) * entry.getValue() / max);
+                g2.setColor(new Color(123, 31, 162));
+                g2.fillRect(x + 2, bottom - height, Math.max(1, slot - 4), height);
+                g2.setColor(Color.DARK_GRAY);
+                String count = String.valueOf(entry.getValue());
+                g2.drawString(count, x + (slot - fm.stringWidth(count)) / 2, bottom - height - 2);
+                String label = entry.getKey() + "-" + (entry.getKey() + bucketWidth - 1);
+                g2.drawString(label, x + (slot - fm.stringWidth(label)) / 2, bottom + fm.getAscent() + 2);
+                x += slot;
+            }
+            g2.dispose();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import javax.swing.*;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+
+// The status log shown under the student table. Keeps the last `capacity` lines in a ring
+// buffer and serves them to a JList, which only renders the rows in view. log() may be called
+// from any thread: lines are queued and handed to the list in one batch at most once per
+// frame, so a bulk import logging every row costs the EDT one repaint per frame rather than
+// one per line. Every line also goes to the optional log file, which keeps what scrolls off.
+public class StatusLog extends AbstractListModel<String> {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private static final int FRAME_MILLIS = 16;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final RotatingLogAppender appender;
+    private final Timer flushTimer;
+
+    // Guarded by this; lines wait here until the next flush
+    private final ArrayDeque<String> pending = new ArrayDeque<>();
+    private boolean flushScheduled;
+    private long stampSecond = Long.MIN_VALUE;
+    private String stamp;
+
+    // EDT only
+    private final String[] lines;
+    private int head;
+    private int size;
+    private JList<String> view;
+
+    public StatusLog(int capacity, RotatingLogAppender appender) {
+        this.lines = new String[capacity];
+        this.appender = appender;
+        flushTimer = new Timer(FRAME_MILLIS, e -> flush());
+        flushTimer.setRepeats(false);
+    }
+
+    // Keeps STATUS_LOG_CAPACITY lines on screen and mirrors them to STATUS_LOG_FILE if it is set
+    public static StatusLog fromEnvironment() {
+        return new StatusLog(Math.max(1, DBConnection.envInt("STATUS_LOG_CAPACITY", DEFAULT_CAPACITY)),
+                RotatingLogAppender.fromEnvironment());
+    }
+
+    public void log(String msg) {
+        boolean schedule;
+        synchronized (this) {
+            String line = "[" + timestamp(System.currentTimeMillis()) + "] " + msg;
+            if (appender != null) {
+                appender.append(line);
+            }
+            // Lines beyond capacity would be evicted by this flush anyway
+            if (pending.size() == lines.length) {
+                pending.removeFirst();
+            }
+            pending.addLast(line);
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+        if (schedule) {
+            flushTimer.start();
+        }
+    }
+
+    // Fixed-height cells let the list work out its size and visible range without measuring
+    // every line
+    public JList<String> createView() {
+        view = new JList<>(this);
+        view.setFont(new Font("Monospaced", Font.PLAIN, 11));
+        view.setFixedCellHeight(view.getFontMetrics(view.getFont()).getHeight() + 2);
+        view.setPrototypeCellValue("[00:00:00] Connection pool ready, all connections validated and idle");
+        view.setVisibleRowCount(5);
+        view.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        return view;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return lines[(head + index) % lines.length];
+    }
+
+    private String timestamp(long millis) {
+        long second = millis / 1000;
+        if (second != stampSecond) {
+            stampSecond = second;
+            stamp = TIME.format(Instant.ofEpochMilli(millis));
+        }
+        return stamp;
+    }
+
+    private void flush() {
+        String[] batch;
+        synchronized (this) {
+            batch = pending.toArray(new String[0]);
+            pending.clear();
+            flushScheduled = false;
+        }
+        if (batch.length == 0) {
+            return;
+        }
+        // Only follow new lines if the user has not scrolled up to read older ones
+        boolean follow = view == null || view.getLastVisibleIndex() < 0 || view.getLastVisibleIndex() >= size - 1;
+        int removed = Math.max(0, size + batch.length - lines.length);
+        for (String line : batch) {
+            int tail = (head + size) % lines.length;
+            lines[tail] = line;
+            if (size == lines.length) {
+                head = (head + 1) % lines.length;
+            } else {
+                size++;
+            }
+        }
+        if (removed > 0) {
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+        fireIntervalAdded(this, size - batch.length, size - 1);
+        if (follow && view != null) {
+            // After the list has been laid out at its new height
+            SwingUtilities.invokeLater(() -> view.ensureIndexIsVisible(size - 1));
+        }
+    }
+}
@@ -4,13 +4,20 @@ public class Student {
     private String lastName;
     private int age;
     private String email;
+    // Row version for optimistic locking; bumped by every update
+    private int version;
 
-    public Student(int id, String firstName, String lastName, int age, String email) {
+    public Student(int id, String firstName, String lastName, int age, String email, int version) {
         this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
         this.age = age;
         this.email = email;
+        this.version = version;
+    }
+
+    public Student(int id, String firstName, String lastName, int age, String email) {
+        this(id, firstName, lastName, age, email, 0);
     }
 
     public Student(String firstName, String lastName, int age, String email) {
@@ -39,6 +46,10 @@ public class Student {
         return email;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     // --- Setters ---
 
     public void setId(int id) {
@@ -60,4 +71,8 @@ public class Student {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,433 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// JSON-over-HTTP front end for other tools, so they share this process's connection pool
+// and student cache instead of opening their own MySQL connections.
+//
+//   POST /students                       {"firstName":..,"lastName":..,"age":..,"email":..} -> 201 {"id":..}
+//   POST /students/bulk                  [student, ...] -> 201 {"ids":[..]}, one transaction
+//   GET  /students/{id}                  -> 200 student, or 404
+//   GET  /students?ids=3,1,2             -> 200 {"students":[..],"missing":[..]}, in the order asked
+//   GET  /students?after=0&limit=100     -> 200 {"students":[..],"nextAfter":..}, keyset pages
+//   GET  /students/export?format=jsonl   -> the whole table as JSON Lines (or csv), streamed
+//
+// Every request runs on its own virtual thread. At most API_MAX_CONCURRENT_REQUESTS run at
+// once; the rest wait up to API_QUEUE_TIMEOUT_MS and are then turned away with 503.
+// Responses carry a Content-Length or are chunked, so clients can keep connections alive.
+// A duplicate email is 409, for single and bulk inserts alike. If a streamed response fails
+// after its headers are out, the connection is dropped before the final chunk, so the
+// client sees an incomplete response rather than a short one that looks whole.
+// Concurrent GET /students/{id} requests are batched into one query (DB_BATCH_WINDOW_MS).
+// With write-behind, POST /students waits up to API_WRITE_TIMEOUT_MS for its group commit
+// and then answers 503.
+public class StudentApiServer implements AutoCloseable {
+
+    private static final int MAX_PAGE_SIZE = 10_000;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+    private final StudentDAO dao;
+    private final StudentWriteBehindQueue writeBehind;
+    private final StudentBatchLoader batchLoader;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final long queueTimeoutMillis;
+    // How long POST /students waits for a write-behind insert to commit
+    private final long writeTimeoutMillis = DBConnection.envInt("API_WRITE_TIMEOUT_MS", 30_000);
+
+    public StudentApiServer(StudentDAO dao, StudentWriteBehindQueue writeBehind, int port,
+                            int maxConcurrentRequests, long queueTimeoutMillis) throws IOException {
+        this.dao = dao;
+        this.writeBehind = writeBehind;
+        this.batchLoader = StudentBatchLoader.fromEnvironment(dao, executor);
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/students", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public static StudentApiServer fromEnvironment(int port) throws IOException {
+        StudentDAO dao = new CachingStudentDAO();
+        return new StudentApiServer(dao, StudentWriteBehindQueue.fromEnvironment(dao), port,
+                DBConnection.envInt("API_MAX_CONCURRENT_REQUESTS", 64),
+                DBConnection.envInt("API_QUEUE_TIMEOUT_MS", 1_000));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Lets requests in progress finish for up to two seconds
+    @Override
+    public void close() {
+        server.stop(2);
+        if (batchLoader != null) {
+            batchLoader.close();
+        }
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        boolean aborted = false;
+        try {
+            boolean admitted;
+            try {
+                admitted = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!admitted) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Server busy, try again");
+                return;
+            }
+            try {
+                route(exchange);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (SQLTransientException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, e.getMessage());
+            } catch (SQLException e) {
+                if (StudentDAO.isDuplicateKey(e)) {
+                    sendError(exchange, 409, e.getMessage());
+                } else {
+                    sendError(exchange, 500, "Database error: " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, "Internal error: " + e);
+            } finally {
+                permits.release();
+            }
+        } catch (ResponseAbortedException e) {
+            aborted = true;
+            throw e;
+        } finally {
+            // Closing writes the final chunk, which an aborted response must not get; the
+            // server drops the connection when the handler throws
+            if (!aborted) {
+                exchange.close();
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException, SQLException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.length() > "/students".length() ? path.substring("/students/".length()) : "";
+
+        if (rest.isEmpty()) {
+            if ("GET".equals(method)) {
+                listStudents(exchange);
+            } else if ("POST".equals(method)) {
+                addStudent(exchange);
+            } else {
+                sendMethodNotAllowed(exchange, "GET, POST");
+            }
+        } else if ("bulk".equals(rest)) {
+            if ("POST".equals(method)) {
+                addStudents(exchange);
+            } else {
+                sendMethodNotAllowed(exchange, "POST");
+            }
+        } else if ("export".equals(rest)) {
+            if ("GET".equals(method)) {
+                export(exchange);
+            } else {
+                sendMethodNotAllowed(exchange, "GET");
+            }
+        } else if (rest.chars().allMatch(Character::isDigit) && rest.length() < 10) {
+            if ("GET".equals(method)) {
+                getStudent(exchange, Integer.parseInt(rest));
+            } else {
+                sendMethodNotAllowed(exchange, "GET");
+            }
+        } else {
+            sendError(exchange, 404, "No such resource: " + path);
+        }
+    }
+
+    private void addStudent(HttpExchange exchange) throws IOException, SQLException {
+        Student s = toStudent(Json.parse(readBody(exchange)));
+        int id;
+        if (writeBehind != null) {
+            try {
+                id = writeBehind.enqueue(s).get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new SQLTimeoutException("The insert did not commit within " + writeTimeoutMillis
+                        + " ms; it may still be committed later");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the insert to commit", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof SQLException
+                        ? (SQLException) e.getCause() : new SQLException(e.getCause());
+            }
+        } else {
+            id = dao.addStudent(s);
+        }
+        exchange.getResponseHeaders().set("Location", "/students/" + id);
+        sendJson(exchange, 201, "{\"id\":" + id + "}");
+    }
+
+    private void addStudents(HttpExchange exchange) throws IOException, SQLException {
+        Object body = Json.parse(readBody(exchange));
+        if (!(body instanceof List)) {
+            throw new IllegalArgumentException("Expected a JSON array of students");
+        }
+        List<?> items = (List<?>) body;
+        List<Student> students = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                students.add(toStudent(items.get(i)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Student " + i + ": " + e.getMessage());
+            }
+        }
+        // All or nothing, so a client can simply retry a failed request
+        List<Integer> ids = dao.addStudentsAtomically(students);
+        StringBuilder json = new StringBuilder(ids.size() * 8 + 10).append("{\"ids\":[");
+        for (int i = 0; i < ids.size(); i++) {
+            json.append(i == 0 ? "" : ",").append(ids.get(i));
+        }
+        sendJson(exchange, 201, json.append("]}").toString());
+    }
+
+    private void getStudent(HttpExchange exchange, int id) throws IOException, SQLException {
+        Student s;
+        if (batchLoader != null) {
+            try {
+                s = batchLoader.load(id).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the lookup", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof SQLException
+                        ? (SQLException) e.getCause() : new SQLException(e.getCause());
+            }
+        } else {
+            s = dao.getStudentById(id);
+        }
+        if (s == null) {
+            sendError(exchange, 404, "No student with id " + id);
+            return;
+        }
+        StringBuilder json = new StringBuilder(128);
+        appendStudent(json, s);
+        sendJson(exchange, 200, json.toString());
+    }
+
+    // Keyset pages; the response is written as it is serialized rather than built up front
+    private void listStudents(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = queryParameters(exchange);
+        if (query.containsKey("ids")) {
+            getStudents(exchange, query.get("ids"));
+            return;
+        }
+        int after = intParameter(query, "after", 0);
+        int limit = intParameter(query, "limit", DEFAULT_PAGE_SIZE);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<Student> page = dao.getStudentsAfter(after, limit);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        // Closed only once complete; see handle()
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+        StringBuilder json = new StringBuilder(256);
+        out.write("{\"students\":[");
+        for (int i = 0; i < page.size(); i++) {
+            json.setLength(0);
+            if (i > 0) {
+                json.append(',');
+            }
+            appendStudent(json, page.get(i));
+            out.append(json);
+        }
+        String next = page.size() == limit ? String.valueOf(page.get(page.size() - 1).getId()) : "null";
+        out.write("],\"nextAfter\":" + next + "}");
+        out.close();
+    }
+
+    private void getStudents(HttpExchange exchange, String idList) throws IOException, SQLException {
+        List<Integer> ids = new ArrayList<>();
+        for (String id : idList.split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                ids.add(Integer.parseInt(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ids must be a comma-separated list of numbers");
+            }
+        }
+        if (ids.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " ids per request");
+        }
+        List<Student> students = dao.getStudentsByIds(ids);
+        StringBuilder json = new StringBuilder(students.size() * 100 + 32).append("{\"students\":[");
+        StringBuilder missing = new StringBuilder("],\"missing\":[");
+        boolean firstFound = true;
+        boolean firstMissing = true;
+        for (int i = 0; i < ids.size(); i++) {
+            Student s = students.get(i);
+            if (s != null) {
+                json.append(firstFound ? "" : ",");
+                appendStudent(json, s);
+                firstFound = false;
+            } else {
+                missing.append(firstMissing ? "" : ",").append(ids.get(i));
+                firstMissing = false;
+            }
+        }
+        sendJson(exchange, 200, json.append(missing).append("]}").toString());
+    }
+
+    // Whole table straight from the streaming cursor, chunked
+    private void export(HttpExchange exchange) throws IOException, SQLException {
+        String format = queryParameters(exchange).getOrDefault("format", "jsonl");
+        StudentExporter.Format exportFormat;
+        if ("jsonl".equals(format)) {
+            exportFormat = StudentExporter.Format.JSONL;
+            exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        } else if ("csv".equals(format)) {
+            exportFormat = StudentExporter.Format.CSV;
+            exchange.getResponseHeaders().set("Content-Type", "text/csv; charset=utf-8");
+        } else {
+            throw new IllegalArgumentException("format must be jsonl or csv");
+        }
+        exchange.sendResponseHeaders(200, 0);
+        // Closed only once complete; see handle()
+        OutputStream out = exchange.getResponseBody();
+        new StudentExporter(dao).exportTo(out, exportFormat);
+        out.close();
+    }
+
+    private static Student toStudent(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object with firstName, lastName, age and email");
+        }
+        Map<?, ?> map = (Map<?, ?>) value;
+        Object age = map.get("age");
+        return StudentValidator.validate(text(map.get("firstName")), text(map.get("lastName")),
+                age instanceof Number ? String.valueOf(((Number) age).longValue()) : text(age),
+                text(map.get("email")));
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static void appendStudent(StringBuilder json, Student s) {
+        json.append("{\"id\":").append(s.getId()).append(",\"firstName\":");
+        Json.appendQuoted(json, s.getFirstName());
+        json.append(",\"lastName\":");
+        Json.appendQuoted(json, s.getLastName());
+        json.append(",\"age\":").append(s.getAge()).append(",\"email\":");
+        Json.appendQuoted(json, s.getEmail());
+        json.append('}');
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (body.size() + n > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body larger than " + MAX_BODY_BYTES + " bytes");
+                }
+                body.write(buffer, 0, n);
+            }
+            return body.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static void sendMethodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendError(exchange, 405, "Method not allowed");
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            throw new ResponseAbortedException(status + " " + message);
+        }
+        sendJson(exchange, status, "{\"error\":" + Json.quote(message) + "}");
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // The response failed after its status line was sent, so it can only be abandoned
+    private static final class ResponseAbortedException extends IOException {
+        ResponseAbortedException(String message) {
+            super(message);
+        }
+    }
+}
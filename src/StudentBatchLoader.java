@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Collects single-student lookups made within a short window and sends them to the database
+// as one getStudentsByIds, the way a DataLoader does. An id asked for several times in one
+// window is fetched once. A batch goes out when the window closes or as soon as it holds
+// maxBatchSize ids, whichever comes first.
+public class StudentBatchLoader implements AutoCloseable {
+
+    private final StudentDAO dao;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+    private Map<Integer, CompletableFuture<Student>> batch = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduled;
+    private boolean closed;
+
+    // Batches are queried on the given executor, so a slow query never holds up the timer
+    public StudentBatchLoader(StudentDAO dao, long windowMillis, int maxBatchSize, Executor executor) {
+        this.dao = dao;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-batch-loader");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // null when DB_BATCH_WINDOW_MS is 0; otherwise batches of up to DB_BATCH_MAX_SIZE ids
+    public static StudentBatchLoader fromEnvironment(StudentDAO dao, Executor executor) {
+        int windowMillis = DBConnection.envInt("DB_BATCH_WINDOW_MS", 2);
+        if (windowMillis <= 0) {
+            return null;
+        }
+        return new StudentBatchLoader(dao, windowMillis,
+                DBConnection.envInt("DB_BATCH_MAX_SIZE", StudentDAO.MAX_IDS_PER_QUERY), executor);
+    }
+
+    // Completes with the student, or null if there is none with this id. Callers asking for
+    // the same id in one batch each get their own copy. Cancelling the returned future does
+    // not affect other callers waiting for the same batch.
+    public CompletableFuture<Student> load(int id) {
+        CompletableFuture<Student> result;
+        Map<Integer, CompletableFuture<Student>> full = null;
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Batch loader is closed"));
+            }
+            result = batch.computeIfAbsent(id, k -> new CompletableFuture<>());
+            if (batch.size() >= maxBatchSize) {
+                full = takeBatch();
+            } else if (scheduled == null) {
+                scheduled = timer.schedule(this::dispatchPending, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result.thenApply(StudentBatchLoader::copy);
+    }
+
+    // Sends whatever is waiting and refuses new lookups
+    @Override
+    public void close() {
+        Map<Integer, CompletableFuture<Student>> pending;
+        synchronized (this) {
+            closed = true;
+            pending = takeBatch();
+        }
+        dispatch(pending);
+        timer.shutdownNow();
+    }
+
+    private void dispatchPending() {
+        Map<Integer, CompletableFuture<Student>> pending;
+        synchronized (this) {
+            pending = takeBatch();
+        }
+        dispatch(pending);
+    }
+
+    private Map<Integer, CompletableFuture<Student>> takeBatch() {
+        Map<Integer, CompletableFuture<Student>> taken = batch;
+        batch = new LinkedHashMap<>();
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+        return taken;
+    }
+
+    private void dispatch(Map<Integer, CompletableFuture<Student>> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            List<Integer> ids = new ArrayList<>(pending.keySet());
+            try {
+                List<Student> students = dao.getStudentsByIds(ids);
+                for (int i = 0; i < ids.size(); i++) {
+                    pending.get(ids.get(i)).complete(students.get(i));
+                }
+            } catch (Throwable t) {
+                pending.values().forEach(f -> f.completeExceptionally(t));
+            }
+        });
+    }
+
+    private static Student copy(Student s) {
+        return s == null ? null
+                : new Student(s.getId(), s.getFirstName(), s.getLastName(), s.getAge(), s.getEmail(), s.getVersion());
+    }
+}
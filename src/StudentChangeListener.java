@@ -0,0 +1,15 @@
+import java.util.List;
+
+// Notified by StudentDAO after a write has committed
+public interface StudentChangeListener {
+
+    void onStudentsAdded(List<Student> students);
+
+    // The students as written, already carrying their new version
+    default void onStudentsUpdated(List<Student> students) {
+    }
+
+    // Every id the delete was asked for, including any that did not exist
+    default void onStudentsDeleted(List<Integer> ids) {
+    }
+}
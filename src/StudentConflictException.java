@@ -0,0 +1,21 @@
+import java.sql.SQLException;
+import java.util.List;
+
+// An update found a row at a different version than the caller read it at: someone else
+// changed or deleted the student in between. Nothing in the failed call was written.
+public class StudentConflictException extends SQLException {
+
+    private final List<Integer> ids;
+
+    public StudentConflictException(List<Integer> ids) {
+        super(ids.size() == 1
+                ? "Student " + ids.get(0) + " was changed or deleted by someone else. Reload it and try again."
+                : ids.size() + " students were changed or deleted by someone else " + ids + ". Reload them and try again.");
+        this.ids = List.copyOf(ids);
+    }
+
+    // The students whose update was refused
+    public List<Integer> getIds() {
+        return ids;
+    }
+}
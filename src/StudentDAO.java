@@ -1,58 +1,716 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class StudentDAO {
 
-    public void addStudent(Student s) throws SQLException {
-        String sql = "INSERT INTO students (first_name, last_name, age, email) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, s.getFirstName());
-            ps.setString(2, s.getLastName());
-            ps.setInt(3, s.getAge());
-            ps.setString(4, s.getEmail());
-            ps.executeUpdate();
+    // Receives one row of a streamed scan. Text columns are the raw UTF-8 bytes from the
+    // driver (null for SQL NULL) and are only valid until the next call.
+    @FunctionalInterface
+    public interface RowHandler {
+        void onRow(int id, byte[] firstName, byte[] lastName, int age, byte[] email) throws IOException;
+    }
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    // Largest IN (...) list getStudentsByIds sends in one query
+    public static final int MAX_IDS_PER_QUERY = 512;
+
+    // Rows per round trip when the driver cannot stream row by row
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    // MySQL error code for a duplicate key in a unique index
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO students (first_name, last_name, age, email) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE students SET first_name = ?, last_name = ?, age = ?, email = ?, version = version + 1"
+                    + " WHERE id = ? AND version = ?";
+
+    private static final OperationMetrics ADD = DbMetrics.operation("StudentDAO.addStudent");
+    private static final OperationMetrics ADD_BATCH = DbMetrics.operation("StudentDAO.addStudents");
+    private static final OperationMetrics UPDATE = DbMetrics.operation("StudentDAO.updateStudent");
+    private static final OperationMetrics UPDATE_BATCH = DbMetrics.operation("StudentDAO.updateStudents");
+    private static final OperationMetrics DELETE = DbMetrics.operation("StudentDAO.deleteByIds");
+    private static final OperationMetrics GET_ALL = DbMetrics.operation("StudentDAO.getAllStudents");
+    private static final OperationMetrics STREAM = DbMetrics.operation("StudentDAO.streamStudents");
+    private static final OperationMetrics LOAD_SNAPSHOT = DbMetrics.operation("StudentDAO.loadSnapshot");
+    private static final OperationMetrics GET_PAGE = DbMetrics.operation("StudentDAO.getStudentsAfter");
+    private static final OperationMetrics GET_ID_AT_OFFSET = DbMetrics.operation("StudentDAO.getIdAtOffset");
+    private static final OperationMetrics COUNT = DbMetrics.operation("StudentDAO.countStudents");
+    private static final OperationMetrics GET_BY_ID = DbMetrics.operation("StudentDAO.getStudentById");
+    private static final OperationMetrics GET_BY_IDS = DbMetrics.operation("StudentDAO.getStudentsByIds");
+    private static final OperationMetrics FIND_BY_EMAIL = DbMetrics.operation("StudentDAO.findByEmail");
+    private static final OperationMetrics FIND_BY_LAST_NAME = DbMetrics.operation("StudentDAO.findByLastName");
+    private static final OperationMetrics GET_STATISTICS = DbMetrics.operation("StudentDAO.getStatistics");
+    private static final OperationMetrics GET_WATERMARK = DbMetrics.operation("StudentDAO.getWatermark");
+    private static final OperationMetrics GET_CHANGED = DbMetrics.operation("StudentDAO.getStudentsChangedSince");
+
+    // Delta queries look this far behind the watermark, so a row whose updated_at was set
+    // just before the watermark but committed after it is still picked up. Re-reading a
+    // row is harmless; merges are idempotent.
+    //
+    // This assumes no writer commits more than the overlap after the statement that set
+    // updated_at (the statement's start time). A write transaction held open longer can be
+    // missed: an insert then shows up in the row count and forces a full reload, but an
+    // update stays unseen until the row changes again. Raise DB_DELTA_OVERLAP_MS above the
+    // longest write transaction of every client of the table.
+    private static final long DELTA_OVERLAP_MS = DBConnection.envInt("DB_DELTA_OVERLAP_MS", 2_000);
+
+    private final List<StudentChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addChangeListener(StudentChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(StudentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Returns the generated id, which is also set on the given student
+    public int addStudent(Student s) throws SQLException {
+        ADD.measure(() -> {
+            try (Connection conn = DBConnection.getWriteConnection();
+                 PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                bindInsert(ps, s);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        s.setId(keys.getInt(1));
+                    }
+                }
+            }
+            return s;
+        }, r -> 1);
+        fireAdded(List.of(s));
+        return s.getId();
+    }
+
+    public List<Integer> addStudents(Iterable<Student> students) throws SQLException {
+        return addStudents(students, DEFAULT_BATCH_SIZE);
+    }
+
+    // Inserts in JDBC batches of batchSize rows, committing each batch as its own transaction.
+    // A failing batch is rolled back and rethrown; batches committed before it stay committed.
+    // Returns the generated ids in input order and sets them on the students.
+    public List<Integer> addStudents(Iterable<Student> students, int batchSize) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        return ADD_BATCH.measure(() -> {
+            List<Integer> ids = new ArrayList<>();
+            List<Student> pending = new ArrayList<>(Math.min(batchSize, 1024));
+            try (Connection conn = DBConnection.getWriteConnection();
+                 PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                conn.setAutoCommit(false);
+                for (Student s : students) {
+                    bindInsert(ps, s);
+                    ps.addBatch();
+                    pending.add(s);
+                    if (pending.size() == batchSize) {
+                        flushBatch(conn, ps, pending, ids);
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    flushBatch(conn, ps, pending, ids);
+                }
+            }
+            return ids;
+        }, List::size);
+    }
+
+    // Inserts every student in one transaction, sent in JDBC batches of DEFAULT_BATCH_SIZE
+    // rows: either all of them are committed or none are. Returns the generated ids in input
+    // order and sets them on the students once committed.
+    public List<Integer> addStudentsAtomically(List<Student> students) throws SQLException {
+        return ADD_BATCH.measure(() -> {
+            List<Integer> ids = new ArrayList<>(students.size());
+            try (Connection conn = DBConnection.getWriteConnection();
+                 PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                conn.setAutoCommit(false);
+                try {
+                    for (int from = 0; from < students.size(); from += DEFAULT_BATCH_SIZE) {
+                        for (Student s : students.subList(from, Math.min(from + DEFAULT_BATCH_SIZE, students.size()))) {
+                            bindInsert(ps, s);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                ids.add(keys.getInt(1));
+                            }
+                        }
+                        ps.clearBatch();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                students.get(i).setId(ids.get(i));
+            }
+            fireAdded(new ArrayList<>(students));
+            return ids;
+        }, List::size);
+    }
+
+    // A write broke a unique index, which for students means the email is already taken.
+    // MySQL reports ER_DUP_ENTRY; other databases the standard SQLState.
+    public static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == ER_DUP_ENTRY || "23505".equals(e.getSQLState());
+    }
+
+    private void flushBatch(Connection conn, PreparedStatement ps, List<Student> pending,
+                            List<Integer> ids) throws SQLException {
+        try {
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                int i = 0;
+                while (keys.next() && i < pending.size()) {
+                    int id = keys.getInt(1);
+                    pending.get(i++).setId(id);
+                    ids.add(id);
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            ps.clearBatch();
+            pending.clear();
+            throw e;
         }
+        ps.clearBatch();
+        fireAdded(new ArrayList<>(pending));
+        pending.clear();
+    }
+
+    private void fireAdded(List<Student> students) {
+        for (StudentChangeListener listener : listeners) {
+            listener.onStudentsAdded(students);
+        }
+    }
+
+    private void fireUpdated(List<Student> students) {
+        for (StudentChangeListener listener : listeners) {
+            listener.onStudentsUpdated(students);
+        }
+    }
+
+    private void fireDeleted(List<Integer> ids) {
+        for (StudentChangeListener listener : listeners) {
+            listener.onStudentsDeleted(ids);
+        }
+    }
+
+    private void bindInsert(PreparedStatement ps, Student s) throws SQLException {
+        ps.setString(1, s.getFirstName());
+        ps.setString(2, s.getLastName());
+        ps.setInt(3, s.getAge());
+        ps.setString(4, s.getEmail());
+    }
+
+    // Optimistic locking: the row is only written if it is still at s.getVersion(), and
+    // s then gets the new version. Otherwise nothing changes and StudentConflictException
+    // is thrown.
+    public void updateStudent(Student s) throws SQLException {
+        UPDATE.measure(() -> {
+            try (Connection conn = DBConnection.getWriteConnection();
+                 PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                bindUpdate(ps, s);
+                if (ps.executeUpdate() == 0) {
+                    throw new StudentConflictException(List.of(s.getId()));
+                }
+            }
+            s.setVersion(s.getVersion() + 1);
+            return s;
+        }, r -> 1);
+        fireUpdated(List.of(s));
+    }
+
+    // Updates every student in one transaction, sent in JDBC batches of DEFAULT_BATCH_SIZE.
+    // All or nothing: if any row has moved on from the version the caller read, the whole
+    // transaction is rolled back and StudentConflictException names every such row.
+    // On success each student gets its new version.
+    public int updateStudents(Collection<Student> students) throws SQLException {
+        if (students.isEmpty()) {
+            return 0;
+        }
+        UPDATE_BATCH.measure(() -> {
+            List<Integer> stale = new ArrayList<>();
+            try (Connection conn = DBConnection.getWriteConnection();
+                 PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                conn.setAutoCommit(false);
+                try {
+                    List<Student> pending = new ArrayList<>(Math.min(students.size(), DEFAULT_BATCH_SIZE));
+                    for (Student s : students) {
+                        bindUpdate(ps, s);
+                        ps.addBatch();
+                        pending.add(s);
+                        if (pending.size() == DEFAULT_BATCH_SIZE) {
+                            executeUpdateBatch(ps, pending, stale);
+                        }
+                    }
+                    if (!pending.isEmpty()) {
+                        executeUpdateBatch(ps, pending, stale);
+                    }
+                    if (!stale.isEmpty()) {
+                        throw new StudentConflictException(stale);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            return students;
+        }, Collection::size);
+        for (Student s : students) {
+            s.setVersion(s.getVersion() + 1);
+        }
+        fireUpdated(new ArrayList<>(students));
+        return students.size();
+    }
+
+    // With rewriteBatchedStatements the driver sends an UPDATE batch as one multi-statement
+    // query, which still reports a count per row
+    private void executeUpdateBatch(PreparedStatement ps, List<Student> pending, List<Integer> stale) throws SQLException {
+        int[] counts = ps.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                stale.add(pending.get(i).getId());
+            }
+        }
+        ps.clearBatch();
+        pending.clear();
+    }
+
+    private void bindUpdate(PreparedStatement ps, Student s) throws SQLException {
+        ps.setString(1, s.getFirstName());
+        ps.setString(2, s.getLastName());
+        ps.setInt(3, s.getAge());
+        ps.setString(4, s.getEmail());
+        ps.setInt(5, s.getId());
+        ps.setInt(6, s.getVersion());
+    }
+
+    // True if the student existed
+    public boolean deleteStudent(int id) throws SQLException {
+        return deleteByIds(List.of(id)) > 0;
+    }
+
+    // Set-based delete: DELETE ... WHERE id IN (...) in chunks of at most MAX_IDS_PER_QUERY
+    // ids, all in one transaction. Returns the number of students deleted; ids that do not
+    // exist are ignored. Deletes are not version-checked.
+    public int deleteByIds(Collection<Integer> ids) throws SQLException {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+        int deleted = DELETE.measure(() -> {
+            int rows = 0;
+            try (Connection conn = DBConnection.getWriteConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    for (int from = 0; from < distinct.size(); from += MAX_IDS_PER_QUERY) {
+                        List<Integer> chunk = distinct.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinct.size()));
+                        try (PreparedStatement ps = prepareIdList(conn, "DELETE FROM students WHERE id IN (", chunk)) {
+                            rows += ps.executeUpdate();
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            return rows;
+        }, rows -> rows);
+        fireDeleted(distinct);
+        return deleted;
     }
 
     public List<Student> getAllStudents() throws SQLException {
-        List<Student> list = new ArrayList<>();
-        String sql = "SELECT id, first_name, last_name, age, email FROM students";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                Student s = new Student(
-                        rs.getInt("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getInt("age"),
-                        rs.getString("email")
-                );
-                list.add(s);
+        return GET_ALL.measure(() -> {
+            List<Student> list = new ArrayList<>();
+            String sql = "SELECT id, first_name, last_name, age, email, version FROM students";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+            return list;
+        }, List::size);
+    }
+
+    // Builds a columnar snapshot in one pass. The driver streams rows (see streamRows)
+    // instead of buffering the whole result set.
+    public StudentSnapshot loadSnapshot() throws SQLException {
+        return LOAD_SNAPSHOT.measure(() -> {
+            StudentSnapshot.Builder builder = new StudentSnapshot.Builder();
+            String sql = "SELECT id, first_name, last_name, age, email FROM students ORDER BY id";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                streamRows(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        builder.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getString(5));
+                    }
+                }
             }
+            return builder.build();
+        }, StudentSnapshot::size);
+    }
+
+    // Passes every student to the handler in id order straight from a streaming cursor,
+    // without building a Student per row. Returns the number of rows handled. If the handler
+    // fails, the query is cancelled so the driver does not have to drain the rest of it.
+    public long streamStudents(RowHandler handler) throws SQLException, IOException {
+        try {
+            return STREAM.measure(() -> {
+                long rows = 0;
+                String sql = "SELECT id, first_name, last_name, age, email FROM students ORDER BY id";
+                try (Connection conn = DBConnection.getReadConnection();
+                     PreparedStatement ps = conn.prepareStatement(sql,
+                             ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    streamRows(ps);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            try {
+                                handler.onRow(rs.getInt(1), rs.getBytes(2), rs.getBytes(3), rs.getInt(4), rs.getBytes(5));
+                            } catch (IOException e) {
+                                ps.cancel();
+                                throw new UncheckedIOException(e);
+                            }
+                            rows++;
+                        }
+                    }
+                }
+                return rows;
+            }, rows -> (int) Math.min(rows, Integer.MAX_VALUE));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        return list;
+    }
+
+    // Keyset pagination: the next `limit` students with id greater than afterId, in id order
+    public List<Student> getStudentsAfter(int afterId, int limit) throws SQLException {
+        return GET_PAGE.measure(() -> {
+            List<Student> list = new ArrayList<>(limit);
+            String sql = "SELECT id, first_name, last_name, age, email, version FROM students WHERE id > ? ORDER BY id LIMIT ?";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, afterId);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        list.add(mapRow(rs));
+                    }
+                }
+            }
+            return list;
+        }, List::size);
+    }
+
+    // Id of the student at the given zero-based position in id order, or -1 past the end.
+    // Only needed to find a keyset anchor when jumping to a page that was never visited.
+    public int getIdAtOffset(int offset) throws SQLException {
+        return GET_ID_AT_OFFSET.measure(() -> {
+            String sql = "SELECT id FROM students ORDER BY id LIMIT 1 OFFSET ?";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, offset);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : -1;
+                }
+            }
+        }, id -> id < 0 ? 0 : 1);
+    }
+
+    public int countStudents() throws SQLException {
+        return COUNT.measure(() -> {
+            String sql = "SELECT COUNT(*) FROM students";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }, count -> 1);
     }
 
     public Student getStudentById(int id) throws SQLException {
-        String sql = "SELECT id, first_name, last_name, age, email FROM students WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, id);
+        return GET_BY_ID.measure(() -> {
+            String sql = "SELECT id, first_name, last_name, age, email, version FROM students WHERE id = ?";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return mapRow(rs);
+                    }
+                }
+            }
+            return null;
+        }, s -> s == null ? 0 : 1);
+    }
+
+    // One entry per requested id, in the order given, with null where no student has that
+    // id. Each distinct id is fetched once, in IN (...) queries of at most MAX_IDS_PER_QUERY
+    // ids that all run on one connection.
+    public List<Student> getStudentsByIds(Collection<Integer> ids) throws SQLException {
+        return GET_BY_IDS.measure(() -> {
+            Map<Integer, Student> found = new HashMap<>();
+            List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+            if (!distinct.isEmpty()) {
+                try (Connection conn = DBConnection.getReadConnection()) {
+                    for (int from = 0; from < distinct.size(); from += MAX_IDS_PER_QUERY) {
+                        List<Integer> chunk = distinct.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinct.size()));
+                        fetchByIds(conn, chunk, found);
+                    }
+                }
+            }
+            List<Student> result = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                result.add(found.get(id));
+            }
+            return result;
+        }, list -> (int) list.stream().filter(s -> s != null).count());
+    }
+
+    private void fetchByIds(Connection conn, List<Integer> ids, Map<Integer, Student> found) throws SQLException {
+        String sql = "SELECT id, first_name, last_name, age, email, version FROM students WHERE id IN (";
+        try (PreparedStatement ps = prepareIdList(conn, sql, ids)) {
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return new Student(
-                            rs.getInt("id"),
-                            rs.getString("first_name"),
-                            rs.getString("last_name"),
-                            rs.getInt("age"),
-                            rs.getString("email")
-                    );
+                while (rs.next()) {
+                    Student s = mapRow(rs);
+                    found.put(s.getId(), s);
                 }
             }
         }
-        return null;
+    }
+
+    // Fetch size Integer.MIN_VALUE makes Connector/J stream rows one at a time. Other drivers,
+    // such as the benchmarks' embedded database, reject it and fetch in chunks instead.
+    private static void streamRows(PreparedStatement ps) throws SQLException {
+        try {
+            ps.setFetchSize(Integer.MIN_VALUE);
+        } catch (SQLException e) {
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+        }
+    }
+
+    // Prepares sqlPrefix + "?,?,...)" with the ids bound. The IN list is padded to a power of
+    // two by repeating the last id, so only a handful of distinct statements ever reach the
+    // server's prepared statement cache.
+    private static PreparedStatement prepareIdList(Connection conn, String sqlPrefix, List<Integer> ids) throws SQLException {
+        int params = Math.min(MAX_IDS_PER_QUERY, Integer.highestOneBit(ids.size() * 2 - 1));
+        StringBuilder sql = new StringBuilder(sqlPrefix.length() + params * 2).append(sqlPrefix);
+        for (int i = 0; i < params; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        PreparedStatement ps = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < params; i++) {
+                ps.setInt(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+            }
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+        return ps;
+    }
+
+    // Emails are unique (uq_students_email), so this is a single index lookup
+    public Student findByEmail(String email) throws SQLException {
+        return FIND_BY_EMAIL.measure(() -> {
+            String sql = "SELECT id, first_name, last_name, age, email, version FROM students WHERE email = ?";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, email.trim());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return mapRow(rs);
+                    }
+                }
+            }
+            return null;
+        }, s -> s == null ? 0 : 1);
+    }
+
+    // Students whose last name starts with the prefix, ordered by last then first name.
+    // A range scan on idx_students_last_first, which also provides the order.
+    public List<Student> findByLastName(String prefix, int limit) throws SQLException {
+        return FIND_BY_LAST_NAME.measure(() -> {
+            List<Student> list = new ArrayList<>();
+            String sql = "SELECT id, first_name, last_name, age, email, version FROM students"
+                    + " WHERE last_name LIKE ? ORDER BY last_name, first_name, id LIMIT ?";
+            try (Connection conn = DBConnection.getReadConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, escapeLike(prefix.trim()) + "%");
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        list.add(mapRow(rs));
+                    }
+                }
+            }
+            return list;
+        }, List::size);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Count, age range and average, students per ageBucketWidth years and the topDomains
+    // most common email domains, all aggregated by the database. Only the summary rows
+    // cross the wire, whatever the size of the table.
+    public StudentStatistics getStatistics(int ageBucketWidth, int topDomains) throws SQLException {
+        if (ageBucketWidth < 1) {
+            throw new IllegalArgumentException("ageBucketWidth must be at least 1");
+        }
+        return GET_STATISTICS.measure(() -> {
+            try (Connection conn = DBConnection.getReadConnection()) {
+                long count;
+                Integer minAge;
+                Integer maxAge;
+                Double averageAge;
+                String summarySql = "SELECT COUNT(*), MIN(age), MAX(age), AVG(age) FROM students";
+                try (PreparedStatement ps = conn.prepareStatement(summarySql);
+                     ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    count = rs.getLong(1);
+                    minAge = rs.getObject(2) == null ? null : rs.getInt(2);
+                    maxAge = rs.getObject(3) == null ? null : rs.getInt(3);
+                    averageAge = rs.getObject(4) == null ? null : rs.getDouble(4);
+                }
+                return new StudentStatistics(count, minAge, maxAge, averageAge, ageBucketWidth,
+                        getAgeHistogram(conn, ageBucketWidth), getTopEmailDomains(conn, topDomains));
+            }
+        }, stats -> 1);
+    }
+
+    private SortedMap<Integer, Long> getAgeHistogram(Connection conn, int bucketWidth) throws SQLException {
+        SortedMap<Integer, Long> histogram = new TreeMap<>();
+        String sql = "SELECT FLOOR(age / ?) * ? AS bucket, COUNT(*) FROM students"
+                + " WHERE age IS NOT NULL GROUP BY bucket ORDER BY bucket";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, bucketWidth);
+            ps.setInt(2, bucketWidth);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    histogram.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+        }
+        return histogram;
+    }
+
+    // Domain is the text after the last '@', compared case-insensitively
+    private Map<String, Long> getTopEmailDomains(Connection conn, int limit) throws SQLException {
+        Map<String, Long> domains = new LinkedHashMap<>();
+        String sql = "SELECT LOWER(SUBSTRING_INDEX(email, '@', -1)) AS domain, COUNT(*) AS students"
+                + " FROM students WHERE email LIKE '%@%'"
+                + " GROUP BY domain ORDER BY students DESC, domain LIMIT ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    domains.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        return domains;
+    }
+
+    // Row count, highest id and newest updated_at, read together so they are consistent.
+    // The watermark and delta queries stay on the primary: a lagging replica could hand out
+    // a watermark ahead of what it has applied, and the refresh would then skip rows.
+    public StudentWatermark getWatermark() throws SQLException {
+        return GET_WATERMARK.measure(() -> {
+            String sql = "SELECT COUNT(*), COALESCE(MAX(id), 0), MAX(updated_at) FROM students";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return new StudentWatermark(rs.getTimestamp(3), rs.getInt(2), rs.getInt(1));
+            }
+        }, w -> 1);
+    }
+
+    // Up to `limit` students inserted or updated since the watermark, using the updated_at
+    // index. If more rows changed, the delta is marked truncated. Deletes leave no row to
+    // find, so the new watermark carries the table's current row count instead: a count
+    // that does not match the old one plus the inserts means rows were deleted.
+    public StudentDelta getStudentsChangedSince(StudentWatermark since, int limit) throws SQLException {
+        return GET_CHANGED.measure(() -> {
+            List<Student> changed = new ArrayList<>();
+            Timestamp newest = since.getUpdatedAt();
+            int maxId = since.getMaxId();
+            int rowCount;
+            boolean truncated = false;
+            Timestamp from = new Timestamp(since.getUpdatedAt() == null
+                    ? 0 : since.getUpdatedAt().getTime() - DELTA_OVERLAP_MS);
+            String sql = "SELECT id, first_name, last_name, age, email, version, updated_at FROM students"
+                    + " WHERE updated_at >= ? ORDER BY updated_at, id LIMIT ?";
+            try (Connection conn = DBConnection.getConnection()) {
+                // One transaction, so the row count is as of the same snapshot as the rows
+                conn.setAutoCommit(false);
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setTimestamp(1, from);
+                    ps.setInt(2, limit + 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (changed.size() == limit) {
+                                truncated = true;
+                                break;
+                            }
+                            Student s = mapRow(rs);
+                            changed.add(s);
+                            Timestamp updatedAt = rs.getTimestamp("updated_at");
+                            if (newest == null || updatedAt.after(newest)) {
+                                newest = updatedAt;
+                            }
+                            maxId = Math.max(maxId, s.getId());
+                        }
+                    }
+                }
+                try (Statement st = conn.createStatement();
+                     ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM students")) {
+                    rs.next();
+                    rowCount = rs.getInt(1);
+                }
+                conn.commit();
+            }
+            StudentWatermark watermark = new StudentWatermark(newest, maxId, rowCount);
+            return new StudentDelta(changed, since, watermark, truncated);
+        }, delta -> delta.getChanged().size());
+    }
+
+    private Student mapRow(ResultSet rs) throws SQLException {
+        return new Student(
+                rs.getInt("id"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getInt("age"),
+                rs.getString("email"),
+                rs.getInt("version")
+        );
     }
 }
@@ -1,24 +1,80 @@
 import javax.swing.*;
 import javax.swing.border.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 public class StudentDBManagerUI extends JFrame {
 
-    private JTextField txtFirstName, txtLastName, txtAge, txtEmail, txtSearchId;
-    private JButton btnAdd, btnView, btnSearch, btnClear;
+    private JTextField txtFirstName, txtLastName, txtAge, txtEmail, txtSearchId, txtQuickSearch;
+    private JTextField txtMinAge, txtMaxAge;
+    private JButton btnAdd, btnView, btnSearch, btnClear, btnImport, btnExport;
+    private JButton btnSaveEdits, btnDiscardEdits, btnDelete;
+    private CompletableFuture<Long> exportTask;
+    private java.nio.file.Path exportFile;
     private JTable table;
-    private DefaultTableModel tableModel;
-    private JTextArea txtStatus;
+    private StudentListTableModel resultsModel;
+    private PagedStudentTableModel pagedModel;
+    private SnapshotStudentTableModel snapshotModel;
+    // Unsaved cell edits, shared by the table models and saved with one batched update
+    private StudentEditBuffer editBuffer;
+    private final StatusLog statusLog = StatusLog.fromEnvironment();
+    private JList<String> statusList;
     private JLabel lblRecordCount;
     private JProgressBar progressBar;
+    private JTabbedPane tabs;
+    private StatisticsPanel statisticsPanel;
+    private DiagnosticsPanel diagnosticsPanel;
+    private String progressMessage = "";
 
-    private StudentDAO studentDAO = new StudentDAO();
+    private StudentDAO studentDAO = new CachingStudentDAO();
+    private AsyncStudentDAO asyncDAO = new AsyncStudentDAO(studentDAO,
+            StudentWriteBehindQueue.fromEnvironment(studentDAO));
+    private CompletableFuture<?> currentRead;
+
+    // Delta refresh of the View All table; the poller only runs while Auto-refresh is ticked
+    private static final int DELTA_LIMIT = 1_000;
+    private JCheckBox chkAutoRefresh;
+    private Timer refreshTimer;
+    private boolean refreshInFlight;
+
+    // Local snapshot file (STUDENT_SNAPSHOT_FILE): shown at startup, then reconciled with the
+    // database. While it is enabled, View All and Auto-refresh keep it current instead of
+    // paging through the table.
+    private final StudentSnapshotFile snapshotFile = StudentSnapshotFile.fromEnvironment();
+    private StudentWatermark snapshotWatermark;
+    private boolean snapshotRestored;
+    private boolean databaseReady;
+
+    // Search-as-you-type: built on first use, then kept current through StudentDAO change events
+    private static final int QUICK_SEARCH_LIMIT = 100;
+    private StudentSearchIndex searchIndex;
+    private boolean searchIndexReady;
+    private Timer quickSearchTimer;
+
+    // Header-click sorting and the age filter, computed off the EDT over fully loaded rows
+    private StudentRowSorter rowSorter;
+    private Timer ageFilterTimer;
+    private JLabel lblView;
+    private int quickSearchSequence;
+    private CompletableFuture<List<Student>> quickSearchTask;
+
+    // Driver, pool warm-up, migrations and the first page, started in main()
+    private final StartupPipeline startup;
+    private boolean startupReported;
 
     public StudentDBManagerUI() {
+        this(StartupPipeline.start(PagedStudentTableModel.DEFAULT_PAGE_SIZE,
+                StudentSnapshotFile.fromEnvironment() == null));
+    }
+
+    public StudentDBManagerUI(StartupPipeline startup) {
+        this.startup = startup;
         setTitle("Student Database Manager");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1000, 700);
@@ -30,10 +86,14 @@ public class StudentDBManagerUI extends JFrame {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        startup.mark("look and feel set");
 
         initComponents();
         initLayout();
         initListeners();
+        startup.mark("window built");
+        restoreSnapshotAsync();
+        awaitStartup();
     }
 
     private void initComponents() {
@@ -51,28 +111,61 @@ public class StudentDBManagerUI extends JFrame {
         txtEmail.setToolTipText("Enter student's email address");
 
         txtSearchId = new JTextField(15);
-        txtSearchId.setToolTipText("Enter student ID to search");
+        txtSearchId.setToolTipText("Enter a student ID (or several, separated by commas), an email, or the start of a last name");
+
+        txtQuickSearch = new JTextField(15);
+        txtQuickSearch.setToolTipText("Type part of a name or email");
+
+        txtMinAge = new JTextField(3);
+        txtMinAge.setToolTipText("Only show students at least this old");
+        txtMaxAge = new JTextField(3);
+        txtMaxAge.setToolTipText("Only show students at most this old");
 
         // Styled buttons
         btnAdd = createStyledButton("Add Student", new Color(46, 125, 50));
         btnView = createStyledButton("View All Students", new Color(123, 31, 162));
         btnSearch = createStyledButton("Search", new Color(255, 152, 0));
         btnClear = createStyledButton("Clear Fields", new Color(96, 125, 139));
+        btnImport = createStyledButton("Import CSV", new Color(0, 121, 107));
+        btnExport = createStyledButton("Export", new Color(0, 96, 100));
+        btnSaveEdits = createStyledButton("Save Changes", new Color(21, 101, 192));
+        btnSaveEdits.setEnabled(false);
+        btnDiscardEdits = createStyledButton("Discard Changes", new Color(96, 125, 139));
+        btnDiscardEdits.setEnabled(false);
+        btnDelete = createStyledButton("Delete Selected", new Color(198, 40, 40));
 
         // Table with custom styling
-        tableModel = new DefaultTableModel(
-                new Object[]{"ID", "First Name", "Last Name", "Age", "Email"}, 0) {
+        // Table models: search results, and a lazily paged view of the whole table
+        resultsModel = new StudentListTableModel();
+        pagedModel = new PagedStudentTableModel(asyncDAO,
+                ex -> appendStatus("❌ Error loading page: " + ex.getMessage()));
+        snapshotModel = new SnapshotStudentTableModel();
+        editBuffer = new StudentEditBuffer(new StudentEditBuffer.Listener() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
+            public void onEditsChanged(int pending) {
+                btnSaveEdits.setText(pending == 0 ? "Save Changes" : "Save Changes (" + pending + ")");
+                btnSaveEdits.setEnabled(pending > 0);
+                btnDiscardEdits.setEnabled(pending > 0);
             }
-        };
 
-        table = new JTable(tableModel);
-        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            @Override
+            public void onEditRejected(String message) {
+                appendStatus("⚠ Edit not applied. " + message);
+            }
+        });
+        resultsModel.setEditBuffer(editBuffer);
+        pagedModel.setEditBuffer(editBuffer);
+        snapshotModel.setEditBuffer(editBuffer);
+
+        // Double-click a cell to edit it; edits are kept until Save Changes
+        table = new JTable(resultsModel);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        table.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
         table.setRowHeight(25);
         table.setFont(new Font("SansSerif", Font.PLAIN, 12));
         table.setGridColor(new Color(224, 224, 224));
+        rowSorter = new StudentRowSorter(resultsModel);
+        table.setRowSorter(rowSorter);
 
         // Style table header
         JTableHeader header = table.getTableHeader();
@@ -81,15 +174,21 @@ public class StudentDBManagerUI extends JFrame {
         header.setFont(new Font("SansSerif", Font.BOLD, 12));
 
         // Status area
-        txtStatus = new JTextArea(5, 50);
-        txtStatus.setEditable(false);
-        txtStatus.setFont(new Font("Monospaced", Font.PLAIN, 11));
-        txtStatus.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        statusList = statusLog.createView();
+        statusList.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
 
         // Record count label
+        chkAutoRefresh = new JCheckBox("Auto-refresh");
+        chkAutoRefresh.setBackground(Color.WHITE);
+        chkAutoRefresh.setToolTipText("Keep the student list current by polling for changes;"
+                + " deletions by others trigger a full reload");
+
         lblRecordCount = new JLabel("Total Records: 0");
         lblRecordCount.setFont(new Font("SansSerif", Font.BOLD, 12));
 
+        lblView = new JLabel("");
+        lblView.setFont(new Font("SansSerif", Font.PLAIN, 12));
+
         // Progress bar
         progressBar = new JProgressBar();
         progressBar.setIndeterminate(false);
@@ -179,6 +278,11 @@ public class StudentDBManagerUI extends JFrame {
         buttonPanel.setBackground(Color.WHITE);
         buttonPanel.add(btnAdd);
         buttonPanel.add(btnClear);
+        buttonPanel.add(btnImport);
+        buttonPanel.add(btnExport);
+        buttonPanel.add(btnSaveEdits);
+        buttonPanel.add(btnDiscardEdits);
+        buttonPanel.add(btnDelete);
 
         // Search panel
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
@@ -194,11 +298,19 @@ public class StudentDBManagerUI extends JFrame {
                 ),
                 BorderFactory.createEmptyBorder(5, 10, 5, 10)
         ));
-        searchPanel.add(createLabel("Student ID:"));
+        searchPanel.add(createLabel("ID / Email / Last Name:"));
         searchPanel.add(txtSearchId);
         searchPanel.add(btnSearch);
+        searchPanel.add(createLabel("Quick Search:"));
+        searchPanel.add(txtQuickSearch);
         searchPanel.add(btnView);
+        searchPanel.add(chkAutoRefresh);
         searchPanel.add(lblRecordCount);
+        searchPanel.add(createLabel("Age:"));
+        searchPanel.add(txtMinAge);
+        searchPanel.add(createLabel("to"));
+        searchPanel.add(txtMaxAge);
+        searchPanel.add(lblView);
 
         // Combine input and buttons
         JPanel topPanel = new JPanel(new BorderLayout(10, 10));
@@ -220,8 +332,17 @@ public class StudentDBManagerUI extends JFrame {
                 BorderFactory.createEmptyBorder(5, 5, 5, 5)
         ));
 
+        // Records and diagnostics share the centre area
+        tabs = new JTabbedPane();
+        tabs.setFont(new Font("SansSerif", Font.BOLD, 12));
+        tabs.addTab("Students", tableScroll);
+        // Statistics and Diagnostics are rarely opened, so they are only built when first selected
+        tabs.addTab("Statistics", new JPanel());
+        tabs.addTab("Diagnostics", new JPanel());
+        tabs.addChangeListener(e -> buildSelectedTab());
+
         // Status panel
-        JScrollPane statusScroll = new JScrollPane(txtStatus);
+        JScrollPane statusScroll = new JScrollPane(statusList);
         statusScroll.setBorder(BorderFactory.createLineBorder(new Color(96, 125, 139)));
 
         JPanel statusPanel = new JPanel(new BorderLayout(5, 5));
@@ -245,7 +366,7 @@ public class StudentDBManagerUI extends JFrame {
         contentPanel.setBackground(new Color(245, 245, 245));
         contentPanel.add(topPanel, BorderLayout.NORTH);
         contentPanel.add(searchPanel, BorderLayout.AFTER_LINE_ENDS);
-        contentPanel.add(tableScroll, BorderLayout.CENTER);
+        contentPanel.add(tabs, BorderLayout.CENTER);
         contentPanel.add(statusPanel, BorderLayout.SOUTH);
 
         mainPanel.add(titlePanel, BorderLayout.NORTH);
@@ -254,6 +375,17 @@ public class StudentDBManagerUI extends JFrame {
         add(mainPanel);
     }
 
+    private void buildSelectedTab() {
+        int index = tabs.getSelectedIndex();
+        if (index == 1 && statisticsPanel == null) {
+            statisticsPanel = new StatisticsPanel(asyncDAO);
+            tabs.setComponentAt(index, statisticsPanel);
+        } else if (index == 2 && diagnosticsPanel == null) {
+            diagnosticsPanel = new DiagnosticsPanel(studentDAO, asyncDAO.getWriteBehind());
+            tabs.setComponentAt(index, diagnosticsPanel);
+        }
+    }
+
     private JLabel createLabel(String text) {
         JLabel label = new JLabel(text);
         label.setFont(new Font("SansSerif", Font.BOLD, 12));
@@ -263,159 +395,777 @@ public class StudentDBManagerUI extends JFrame {
     private void initListeners() {
         btnAdd.addActionListener(e -> addStudentAsync());
         btnView.addActionListener(e -> loadStudentsAsync());
+        refreshTimer = new Timer(DBConnection.envInt("STUDENT_REFRESH_INTERVAL_MS", 5_000), e -> pollChanges());
+        chkAutoRefresh.addActionListener(e -> {
+            if (chkAutoRefresh.isSelected()) {
+                refreshTimer.start();
+            } else {
+                refreshTimer.stop();
+            }
+        });
         btnSearch.addActionListener(e -> searchStudentAsync());
         btnClear.addActionListener(e -> clearInputFields());
+        btnImport.addActionListener(e -> importCsvAsync());
+        btnSaveEdits.addActionListener(e -> saveEditsAsync());
+        btnDiscardEdits.addActionListener(e -> discardEdits());
+        btnDelete.addActionListener(e -> deleteSelectedAsync());
+        btnExport.addActionListener(e -> {
+            if (exportTask != null) {
+                cancelExport();
+            } else {
+                exportAsync();
+            }
+        });
+        DbMetrics.setSlowQueryListener(msg -> statusLog.log("⚠ " + msg));
+
+        // Debounce: only search once typing pauses
+        quickSearchTimer = new Timer(150, e -> quickSearchAsync());
+        quickSearchTimer.setRepeats(false);
+        txtQuickSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                quickSearchTimer.restart();
+            }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                quickSearchTimer.restart();
+            }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                quickSearchTimer.restart();
+            }
+        });
+
+        ageFilterTimer = new Timer(150, e -> applyAgeFilter());
+        ageFilterTimer.setRepeats(false);
+        javax.swing.event.DocumentListener ageListener = new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                ageFilterTimer.restart();
+            }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                ageFilterTimer.restart();
+            }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                ageFilterTimer.restart();
+            }
+        };
+        txtMinAge.getDocument().addDocumentListener(ageListener);
+        txtMaxAge.getDocument().addDocumentListener(ageListener);
+        rowSorter.addRowSorterListener(e -> updateViewStatus());
     }
 
-    private void addStudentAsync() {
-        String first = txtFirstName.getText().trim();
-        String last = txtLastName.getText().trim();
-        String ageText = txtAge.getText().trim();
-        String email = txtEmail.getText().trim();
-
-        if (first.isEmpty() || last.isEmpty() || ageText.isEmpty() || email.isEmpty()) {
-            appendStatus("❌ Error: Please fill all fields.");
-            JOptionPane.showMessageDialog(this, "Please fill all fields.", "Input Error", JOptionPane.WARNING_MESSAGE);
+    // A blank or non-numeric bound leaves that end of the range open
+    private void applyAgeFilter() {
+        rowSorter.setAgeFilter(parseAge(txtMinAge.getText()), parseAge(txtMaxAge.getText()));
+        updateViewStatus();
+    }
+
+    private static Integer parseAge(String text) {
+        try {
+            return text.isBlank() ? null : Integer.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void updateViewStatus() {
+        boolean ageFilterSet = parseAge(txtMinAge.getText()) != null || parseAge(txtMaxAge.getText()) != null;
+        if (rowSorter.isPending()) {
+            lblView.setText("Sorting…");
+        } else if (!rowSorter.isSortable() && ageFilterSet) {
+            lblView.setText("Filter applies to search results and the local snapshot");
+        } else if (rowSorter.isFiltered()) {
+            lblView.setText("Showing " + rowSorter.getViewRowCount() + " of " + rowSorter.getModelRowCount()
+                    + " (" + rowSorter.getLastSortMillis() + " ms)");
+        } else if (!rowSorter.getSortKeys().isEmpty()) {
+            lblView.setText("Sorted in " + rowSorter.getLastSortMillis() + " ms");
+        } else {
+            lblView.setText("");
+        }
+    }
+
+    // Only reports on the work StartupPipeline is already doing, and shows the prefetched
+    // first page unless the user has moved on in the meantime
+    private void awaitStartup() {
+        runAsync(startup.getPool(), stats -> appendStatus("✓ Connection pool ready (" + stats + ")."),
+                error -> appendStatus("⚠ Could not pre-warm connection pool: " + describe(error)));
+        runAsync(startup.getSchema(), applied -> {
+            if (!applied.isEmpty()) {
+                appendStatus("✓ Applied schema migration(s) " + applied + ".");
+            }
+            onDatabaseReady();
+        }, error -> {
+            appendStatus("❌ Schema migration failed: " + describe(error));
+            onDatabaseReady();
+        });
+        if (startup.getFirstPage() == null) {
             return;
         }
+        CompletableFuture<List<Student>> firstPage = startup.getFirstPage();
+        runAsync(startup.getWatermark().thenCombine(firstPage, (watermark, rows) -> watermark), watermark -> {
+            if (table.getModel() == resultsModel && resultsModel.getRowCount() == 0 && pagedModel.getWatermark() == null) {
+                showModel(pagedModel);
+                pagedModel.reset(watermark);
+                pagedModel.preload(0, firstPage.join());
+                lblRecordCount.setText("Total Records: " + watermark.getRowCount());
+                appendStatus("✓ Loaded " + watermark.getRowCount() + " student(s).");
+            }
+            reportStartup("first page shown");
+        }, error -> {
+            appendStatus("⚠ Could not load students at startup: " + describe(error));
+            reportStartup("first page failed");
+        });
+    }
 
-        int age;
-        try {
-            age = Integer.parseInt(ageText);
-            if (age < 1 || age > 150) {
-                throw new NumberFormatException("Age out of range");
+    // Time-to-first-interactive: logged once, when the first rows are on screen or it is
+    // clear they will not be
+    private void reportStartup(String phase) {
+        if (startupReported) {
+            return;
+        }
+        startupReported = true;
+        startup.mark(phase);
+        String report = startup.report();
+        appendStatus("⏱ Startup: " + report + ".");
+    }
+
+    private void onDatabaseReady() {
+        databaseReady = true;
+        if (snapshotRestored) {
+            reconcileSnapshotAsync(false);
+        }
+    }
+
+    // Shows the students from the local snapshot file straight away; reconciling with the
+    // database waits for the schema migrations
+    private void restoreSnapshotAsync() {
+        if (snapshotFile == null) {
+            return;
+        }
+        long[] millis = new long[1];
+        runAsync(asyncDAO.submitTask(() -> {
+            long start = System.nanoTime();
+            StudentSnapshotFile.Contents contents = snapshotFile.read();
+            millis[0] = (System.nanoTime() - start) / 1_000_000;
+            return contents;
+        }, 0), contents -> {
+            // Skipped if View All already loaded the students from the database
+            if (contents != null && snapshotWatermark == null && !refreshInFlight) {
+                showSnapshot(contents.getSnapshot(), contents.getWatermark());
+                reportStartup("local snapshot shown");
+                appendStatus("✓ Showing " + contents.getSnapshot().size()
+                        + " student(s) from the local snapshot saved " + String.format("%tF %<tT", contents.getSavedAt()) + " (" + millis[0] + " ms).");
             }
+            snapshotRestored();
+        }, error -> {
+            appendStatus("⚠ Local snapshot is unusable and will be rebuilt: " + describe(error));
+            snapshotRestored();
+        });
+    }
+
+    private void snapshotRestored() {
+        snapshotRestored = true;
+        if (databaseReady) {
+            reconcileSnapshotAsync(false);
+        }
+    }
+
+    // Merges what changed since the snapshot's watermark, or reloads every student when that
+    // is too much or rows were deleted, then saves the result. A failure leaves the table as
+    // it was, so the last snapshot can still be browsed offline.
+    private void reconcileSnapshotAsync(boolean interactive) {
+        if (refreshInFlight) {
+            if (interactive) {
+                appendStatus("Refresh already in progress...");
+            }
+            return;
+        }
+        refreshInFlight = true;
+        StudentSnapshot current = snapshotModel.getSnapshot();
+        StudentWatermark since = snapshotWatermark;
+        if (interactive) {
+            showProgress(true, "Refreshing students...");
+        }
+        runAsync(asyncDAO.submit(() -> StudentSnapshotFile.reconcile(studentDAO, current, since, DELTA_LIMIT), 0),
+                result -> {
+                    refreshInFlight = false;
+                    showProgress(false, "");
+                    reportStartup("students loaded");
+                    // Search results on screen stay there; View All brings the snapshot back
+                    if (interactive || table.getModel() == snapshotModel || resultsModel.getRowCount() == 0) {
+                        showSnapshot(result.getSnapshot(), result.getWatermark());
+                    } else {
+                        snapshotModel.setSnapshot(result.getSnapshot());
+                        snapshotWatermark = result.getWatermark();
+                    }
+                    if (result.isReloaded()) {
+                        appendStatus("✓ Loaded " + result.getChangedRows() + " student(s).");
+                    } else if (result.getChangedRows() > 0) {
+                        appendStatus("✓ Merged " + result.getChangedRows() + " changed student(s).");
+                    } else if (interactive) {
+                        appendStatus("✓ Student list is up to date.");
+                    }
+                    if (result.isReloaded() || result.getChangedRows() > 0) {
+                        saveSnapshotAsync(result.getSnapshot(), result.getWatermark());
+                    }
+                }, error -> {
+                    refreshInFlight = false;
+                    showProgress(false, "");
+                    reportStartup("students failed to load");
+                    if (since != null) {
+                        appendStatus("⚠ Could not reach the database; showing the local snapshot: " + describe(error));
+                    } else {
+                        appendStatus("❌ Error loading students: " + describe(error));
+                    }
+                    if (interactive) {
+                        JOptionPane.showMessageDialog(StudentDBManagerUI.this,
+                                "Error refreshing students: " + describe(error),
+                                "Database Error",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                    if (chkAutoRefresh.isSelected()) {
+                        chkAutoRefresh.setSelected(false);
+                        refreshTimer.stop();
+                    }
+                });
+    }
+
+    // Keeps the selected student selected across the swap
+    private void showSnapshot(StudentSnapshot snapshot, StudentWatermark watermark) {
+        int selectedRow = table.getModel() == snapshotModel ? table.getSelectedRow() : -1;
+        int selectedId = selectedRow >= 0
+                ? snapshotModel.getSnapshot().getId(table.convertRowIndexToModel(selectedRow)) : -1;
+        showModel(snapshotModel);
+        snapshotModel.setSnapshot(snapshot);
+        snapshotWatermark = watermark;
+        lblRecordCount.setText("Total Records: " + snapshot.size());
+        int row = selectedId >= 0 ? table.convertRowIndexToView(snapshot.findRow(selectedId)) : -1;
+        if (row >= 0) {
+            table.setRowSelectionInterval(row, row);
+        }
+    }
+
+    private void saveSnapshotAsync(StudentSnapshot snapshot, StudentWatermark watermark) {
+        runAsync(asyncDAO.submitTask(() -> {
+            snapshotFile.write(snapshot, watermark);
+            return null;
+        }, 0), saved -> { }, error -> appendStatus("⚠ Could not save the local snapshot: " + describe(error)));
+    }
+
+    private void addStudentAsync() {
+        Student s;
+        try {
+            s = StudentValidator.validate(txtFirstName.getText(), txtLastName.getText(),
+                    txtAge.getText(), txtEmail.getText());
         } catch (NumberFormatException ex) {
-            appendStatus("❌ Error: Age must be a valid number (1-150).");
-            JOptionPane.showMessageDialog(this, "Age must be a valid number between 1 and 150.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            appendStatus("❌ Error: " + ex.getMessage());
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        } catch (IllegalArgumentException ex) {
+            appendStatus("❌ Error: " + ex.getMessage());
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Input Error", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        // Disabled until this insert finishes so a double click cannot add the student twice
+        btnAdd.setEnabled(false);
+        CompletableFuture<Integer> insert = asyncDAO.addStudent(s)
+                .whenComplete((id, error) -> SwingUtilities.invokeLater(() -> btnAdd.setEnabled(true)));
+        runAsync("Adding student", "adding student", insert, id -> {
+            appendStatus("✓ Student added successfully: " + s.getFirstName() + " " + s.getLastName()
+                    + " (ID " + id + ")");
+            clearInputFields();
+            JOptionPane.showMessageDialog(StudentDBManagerUI.this,
+                    "Student added successfully!",
+                    "Success",
+                    JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
 
-        Student s = new Student(first, last, age, email);
-        showProgress(true, "Adding student...");
+    // Every buffered edit goes to the database as one batched, all-or-nothing update
+    private void saveEditsAsync() {
+        if (table.isEditing()) {
+            table.getCellEditor().stopCellEditing();
+        }
+        List<Student> changes = editBuffer.getEdits();
+        if (changes.isEmpty()) {
+            return;
+        }
+        btnSaveEdits.setEnabled(false);
+        showProgress(true, "Saving " + changes.size() + " change(s)...");
+        runAsync(asyncDAO.updateStudents(changes), updated -> {
+            showProgress(false, "");
+            List<Integer> ids = new ArrayList<>();
+            for (Student s : changes) {
+                ids.add(s.getId());
+            }
+            editBuffer.remove(ids);
+            resultsModel.replaceStudents(changes);
+            pagedModel.replaceStudents(changes);
+            refreshSnapshotAfterWrite();
+            appendStatus("✓ Saved changes to " + updated + " student(s).");
+        }, error -> {
+            showProgress(false, "");
+            btnSaveEdits.setEnabled(!editBuffer.isEmpty());
+            if (error instanceof StudentConflictException) {
+                reloadConflicts(((StudentConflictException) error).getIds());
+            }
+            appendStatus("❌ Error saving changes: " + describe(error));
+            JOptionPane.showMessageDialog(StudentDBManagerUI.this,
+                    "Error saving changes: " + describe(error),
+                    error instanceof StudentConflictException ? "Edit Conflict" : "Database Error",
+                    JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    // The conflicting rows are shown as they are now and their edits dropped, so they can
+    // be redone against the current values; the other edits stay in the buffer
+    private void reloadConflicts(List<Integer> ids) {
+        editBuffer.remove(ids);
+        runAsync(asyncDAO.getStudentsByIds(ids), current -> {
+            List<Student> found = new ArrayList<>();
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (current.get(i) != null) {
+                    found.add(current.get(i));
+                } else {
+                    missing.add(ids.get(i));
+                }
+            }
+            resultsModel.replaceStudents(found);
+            resultsModel.removeStudents(missing);
+            pagedModel.replaceStudents(found);
+        }, error -> appendStatus("⚠ Could not reload the conflicting students: " + describe(error)));
+    }
+
+    private void discardEdits() {
+        if (table.isEditing()) {
+            table.getCellEditor().cancelCellEditing();
+        }
+        int pending = editBuffer.size();
+        editBuffer.clear();
+        ((StudentTableModel) table.getModel()).fireTableDataChanged();
+        appendStatus("Discarded unsaved changes to " + pending + " student(s).");
+    }
 
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+    private void deleteSelectedAsync() {
+        StudentTableModel model = (StudentTableModel) table.getModel();
+        List<Integer> ids = new ArrayList<>();
+        for (int row : table.getSelectedRows()) {
+            Student s = model.getStudentAt(table.convertRowIndexToModel(row));
+            if (s != null) {
+                ids.add(s.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Select the students to delete first.",
+                    "Delete Students", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        int answer = JOptionPane.showConfirmDialog(this,
+                "Delete " + ids.size() + " selected student(s)? This cannot be undone.",
+                "Delete Students", JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (answer != JOptionPane.OK_OPTION) {
+            return;
+        }
+        btnDelete.setEnabled(false);
+        CompletableFuture<Integer> delete = asyncDAO.deleteByIds(ids)
+                .whenComplete((count, error) -> SwingUtilities.invokeLater(() -> btnDelete.setEnabled(true)));
+        runAsync("Deleting students", "deleting students", delete, deleted -> {
+            editBuffer.remove(ids);
+            resultsModel.removeStudents(ids);
+            // Deltas only see inserts and updates, so the paged view is reloaded
+            if (table.getModel() == pagedModel) {
+                pagedModel.reset(0);
+                loadStudentsAsync();
+            }
+            refreshSnapshotAfterWrite();
+            appendStatus("✓ Deleted " + deleted + " student(s).");
+        });
+    }
+
+    // Snapshot rows are not edited in place; the reconcile merges updates and, seeing the
+    // row count change, reloads after deletes
+    private void refreshSnapshotAfterWrite() {
+        if (snapshotFile != null && snapshotRestored && databaseReady) {
+            reconcileSnapshotAsync(false);
+        }
+    }
+
+    private void importCsvAsync() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+
+        btnImport.setEnabled(false);
+        showProgress(0, "Importing " + file.getFileName() + "...");
+        appendStatus("Importing students from " + file + "...");
+
+        SwingWorker<CsvStudentImporter.Result, Void> worker = new SwingWorker<>() {
             @Override
-            protected Void doInBackground() throws Exception {
-                studentDAO.addStudent(s);
-                return null;
+            protected CsvStudentImporter.Result doInBackground() throws Exception {
+                CsvStudentImporter importer = new CsvStudentImporter(studentDAO);
+                return importer.importFile(file, new CsvStudentImporter.Listener() {
+                    @Override
+                    public void onProgress(long bytesRead, long totalBytes, int imported, int rejected) {
+                        setProgress(totalBytes == 0 ? 100 : (int) (bytesRead * 100 / totalBytes));
+                    }
+
+                    @Override
+                    public void onRejected(int line, String reason) {
+                        // Straight from the import thread; the log batches these per frame
+                        statusLog.log("⚠ Line " + line + " skipped: " + reason);
+                    }
+                });
             }
 
             @Override
             protected void done() {
                 showProgress(false, "");
+                btnImport.setEnabled(true);
                 try {
-                    get();
-                    appendStatus("✓ Student added successfully: " + first + " " + last);
-                    clearInputFields();
-                    JOptionPane.showMessageDialog(StudentDBManagerUI.this,
-                            "Student added successfully!",
-                            "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
+                    CsvStudentImporter.Result result = get();
+                    appendStatus("✓ Imported " + result.getImported() + " student(s), "
+                            + result.getRejected() + " row(s) rejected.");
                 } catch (Exception ex) {
-                    appendStatus("❌ Error adding student: " + ex.getMessage());
+                    appendStatus("❌ Error importing CSV: " + ex.getMessage());
                     JOptionPane.showMessageDialog(StudentDBManagerUI.this,
-                            "Error adding student: " + ex.getMessage(),
-                            "Database Error",
+                            "Error importing CSV: " + ex.getMessage(),
+                            "Import Error",
                             JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                showProgress((Integer) evt.getNewValue(), null);
+            }
+        });
         worker.execute();
     }
 
-    private void loadStudentsAsync() {
-        showProgress(true, "Loading students...");
+    // While running, the Export button turns into Cancel Export
+    private void exportAsync() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Students");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+                "CSV or JSON Lines (optionally .gz)", "csv", "jsonl", "json", "gz"));
+        chooser.setSelectedFile(new java.io.File("students.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+        try {
+            StudentExporter.Format.forFile(file);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Export Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
-        SwingWorker<List<Student>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Student> doInBackground() throws Exception {
-                return studentDAO.getAllStudents();
-            }
+        btnExport.setText("Cancel Export");
+        showProgress(0, "Exporting to " + file.getFileName() + "...");
+        appendStatus("Exporting students to " + file + "...");
 
-            @Override
-            protected void done() {
-                showProgress(false, "");
-                try {
-                    List<Student> students = get();
-                    tableModel.setRowCount(0);
-                    for (Student s : students) {
-                        tableModel.addRow(new Object[]{
-                                s.getId(),
-                                s.getFirstName(),
-                                s.getLastName(),
-                                s.getAge(),
-                                s.getEmail()
+        // Progress is posted only when the percentage moves, not once per row
+        int[] percent = {0};
+        CompletableFuture<Long> task = asyncDAO.submitTask(() -> new StudentExporter(studentDAO).exportTo(file,
+                (rowsWritten, totalRows) -> {
+                    int next = totalRows == 0 ? 100 : (int) (rowsWritten * 100 / totalRows);
+                    if (next != percent[0]) {
+                        percent[0] = next;
+                        SwingUtilities.invokeLater(() -> {
+                            if (exportTask != null && exportFile == file) {
+                                showProgress(next, null);
+                            }
                         });
                     }
-                    lblRecordCount.setText("Total Records: " + students.size());
-                    appendStatus("✓ Loaded " + students.size() + " student(s).");
-                } catch (Exception ex) {
-                    appendStatus("❌ Error loading students: " + ex.getMessage());
-                    JOptionPane.showMessageDialog(StudentDBManagerUI.this,
-                            "Error loading students: " + ex.getMessage(),
-                            "Database Error",
-                            JOptionPane.ERROR_MESSAGE);
-                }
+                }), 0);
+        exportTask = task;
+        exportFile = file;
+        runAsync(task, rows -> {
+            exportFinished();
+            appendStatus("✓ Exported " + rows + " student(s) to " + file + ".");
+        }, error -> {
+            exportFinished();
+            appendStatus("❌ Error exporting students: " + describe(error));
+            JOptionPane.showMessageDialog(StudentDBManagerUI.this,
+                    "Error exporting students: " + describe(error),
+                    "Export Error",
+                    JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    // Interrupts the exporter, which deletes its partial file; runAsync reports nothing for
+    // cancelled work, so the outcome is reported here
+    private void cancelExport() {
+        java.nio.file.Path file = exportFile;
+        if (!exportTask.cancel(true)) {
+            return; // Already finished; its result is on the way to the EDT
+        }
+        exportFinished();
+        appendStatus("⚠ Export cancelled; " + file.getFileName() + " was not written.");
+    }
+
+    private void exportFinished() {
+        exportTask = null;
+        exportFile = null;
+        showProgress(false, "");
+        btnExport.setText("Export");
+    }
+
+    // The first View All loads the row count and watermark; pages load as the table scrolls.
+    // Later clicks only fetch what changed since and merge it into the table in place.
+    private void loadStudentsAsync() {
+        if (snapshotFile != null) {
+            if (table.getModel() != snapshotModel) {
+                showSnapshot(snapshotModel.getSnapshot(), snapshotWatermark);
             }
-        };
-        worker.execute();
+            reconcileSnapshotAsync(true);
+            return;
+        }
+        StudentWatermark since = pagedModel.getWatermark();
+        if (table.getModel() == pagedModel && since != null) {
+            runRead("Refreshing students", "refreshing students",
+                    asyncDAO.getStudentsChangedSince(since, DELTA_LIMIT), delta -> {
+                        mergeDelta(since, delta);
+                        if (delta.isEmpty()) {
+                            appendStatus("✓ Student list is up to date.");
+                        }
+                    });
+            return;
+        }
+        runRead("Loading students", "loading students", asyncDAO.getWatermark(), watermark -> {
+            showModel(pagedModel);
+            pagedModel.reset(watermark);
+            lblRecordCount.setText("Total Records: " + watermark.getRowCount());
+            appendStatus("✓ Loaded " + watermark.getRowCount() + " student(s).");
+        });
     }
 
+    private void pollChanges() {
+        if (snapshotFile != null) {
+            if (table.getModel() == snapshotModel && snapshotRestored && databaseReady) {
+                reconcileSnapshotAsync(false);
+            }
+            return;
+        }
+        StudentWatermark since = pagedModel.getWatermark();
+        if (refreshInFlight || table.getModel() != pagedModel || since == null) {
+            return;
+        }
+        refreshInFlight = true;
+        runAsync(asyncDAO.getStudentsChangedSince(since, DELTA_LIMIT), delta -> {
+            refreshInFlight = false;
+            mergeDelta(since, delta);
+        }, error -> {
+            refreshInFlight = false;
+            chkAutoRefresh.setSelected(false);
+            refreshTimer.stop();
+            appendStatus("⚠ Auto-refresh stopped: " + describe(error));
+        });
+    }
+
+    private void mergeDelta(StudentWatermark since, StudentDelta delta) {
+        // The table was reloaded while this delta was in flight
+        if (pagedModel.getWatermark() != since) {
+            return;
+        }
+        if (!pagedModel.applyDelta(delta)) {
+            appendStatus("Students were deleted or too many changed to merge; reloading all students...");
+            pagedModel.reset(0);
+            loadStudentsAsync();
+            return;
+        }
+        lblRecordCount.setText("Total Records: " + pagedModel.getRowCount());
+        if (!delta.isEmpty()) {
+            appendStatus("✓ Merged " + delta.getChanged().size() + " changed student(s).");
+        }
+    }
+
+    // A number searches by id, a comma-separated list by all those ids, text with '@' by
+    // email, anything else by last name prefix
     private void searchStudentAsync() {
-        String idText = txtSearchId.getText().trim();
-        if (idText.isEmpty()) {
-            appendStatus("❌ Error: Please enter ID to search.");
-            JOptionPane.showMessageDialog(this, "Please enter a student ID.", "Input Error", JOptionPane.WARNING_MESSAGE);
+        String text = txtSearchId.getText().trim();
+        if (text.isEmpty()) {
+            appendStatus("❌ Error: Please enter an ID, email or last name to search.");
+            JOptionPane.showMessageDialog(this, "Please enter a student ID, email or last name.",
+                    "Input Error", JOptionPane.WARNING_MESSAGE);
             return;
         }
 
+        if (text.matches("[\\d\\s,]*,[\\d\\s,]*")) {
+            List<Integer> ids = new ArrayList<>();
+            for (String part : text.split("[\\s,]+")) {
+                if (!part.isEmpty()) {
+                    try {
+                        ids.add(Integer.parseInt(part));
+                    } catch (NumberFormatException ex) {
+                        appendStatus("❌ Error: " + part + " is not a valid student ID.");
+                        return;
+                    }
+                }
+            }
+            runRead("Searching", "searching students", asyncDAO.getStudentsByIds(ids),
+                    students -> showIdListResult(ids, students));
+            return;
+        }
+        if (text.contains("@")) {
+            runRead("Searching", "searching student", asyncDAO.findByEmail(text),
+                    student -> showSearchResult(student == null ? List.of() : List.of(student), "email " + text));
+            return;
+        }
         int id;
         try {
-            id = Integer.parseInt(idText);
+            id = Integer.parseInt(text);
         } catch (NumberFormatException ex) {
-            appendStatus("❌ Error: ID must be a number.");
+            runRead("Searching", "searching students", asyncDAO.findByLastName(text, QUICK_SEARCH_LIMIT),
+                    students -> showSearchResult(students, "last name starting with \"" + text + "\""));
             return;
         }
+        runRead("Searching", "searching student", asyncDAO.getStudentById(id),
+                student -> showSearchResult(student == null ? List.of() : List.of(student), "ID " + id));
+    }
 
-        showProgress(true, "Searching...");
-
-        SwingWorker<Student, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Student doInBackground() throws Exception {
-                return studentDAO.getStudentById(id);
+    // Found students in the order their ids were given; the ids that were not found are listed
+    private void showIdListResult(List<Integer> ids, List<Student> students) {
+        List<Student> found = new ArrayList<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (students.get(i) != null) {
+                found.add(students.get(i));
+            } else {
+                missing.add(ids.get(i));
             }
+        }
+        showModel(resultsModel);
+        resultsModel.setStudents(found);
+        lblRecordCount.setText("Total Records: " + found.size());
+        appendStatus("✓ Found " + found.size() + " of " + ids.size() + " requested student(s).");
+        if (!missing.isEmpty()) {
+            appendStatus("⚠ No student found with ID(s) " + missing + ".");
+        }
+    }
 
-            @Override
-            protected void done() {
-                showProgress(false, "");
-                try {
-                    Student s = get();
-                    tableModel.setRowCount(0);
-                    if (s != null) {
-                        tableModel.addRow(new Object[]{
-                                s.getId(),
-                                s.getFirstName(),
-                                s.getLastName(),
-                                s.getAge(),
-                                s.getEmail()
-                        });
-                        lblRecordCount.setText("Total Records: 1");
-                        appendStatus("✓ Student found with ID " + id + ".");
-                    } else {
-                        lblRecordCount.setText("Total Records: 0");
-                        appendStatus("⚠ No student found with ID " + id + ".");
-                        JOptionPane.showMessageDialog(StudentDBManagerUI.this,
-                                "No student found with ID: " + id,
-                                "Not Found",
-                                JOptionPane.INFORMATION_MESSAGE);
-                    }
-                } catch (Exception ex) {
-                    appendStatus("❌ Error searching student: " + ex.getMessage());
-                }
+    private void showSearchResult(List<Student> students, String criteria) {
+        showModel(resultsModel);
+        resultsModel.setStudents(students);
+        lblRecordCount.setText("Total Records: " + students.size());
+        if (!students.isEmpty()) {
+            appendStatus("✓ Found " + students.size() + " student(s) with " + criteria + ".");
+        } else {
+            appendStatus("⚠ No student found with " + criteria + ".");
+            JOptionPane.showMessageDialog(StudentDBManagerUI.this,
+                    "No student found with " + criteria,
+                    "Not Found",
+                    JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    private void quickSearchAsync() {
+        String query = txtQuickSearch.getText().trim();
+        if (query.isEmpty()) {
+            return;
+        }
+        if (!searchIndexReady) {
+            buildSearchIndexAsync();
+            return;
+        }
+
+        // The previous keystroke's search is no longer wanted
+        if (quickSearchTask != null) {
+            quickSearchTask.cancel(true);
+        }
+        int sequence = ++quickSearchSequence;
+        long[] micros = new long[1];
+        quickSearchTask = asyncDAO.submitTask(() -> {
+            long start = System.nanoTime();
+            List<Student> matches = searchIndex.search(query, QUICK_SEARCH_LIMIT);
+            micros[0] = (System.nanoTime() - start) / 1000;
+            return matches;
+        }, 0);
+        runAsync(quickSearchTask, matches -> {
+            // A newer keystroke has already been searched
+            if (sequence != quickSearchSequence) {
+                return;
             }
-        };
-        worker.execute();
+            showModel(resultsModel);
+            resultsModel.setStudents(matches);
+            lblRecordCount.setText("Total Records: " + matches.size() + " (" + micros[0] + " µs)");
+        }, error -> {
+            if (sequence == quickSearchSequence) {
+                appendStatus("❌ Error searching: " + describe(error));
+            }
+        });
+    }
+
+    private void buildSearchIndexAsync() {
+        if (searchIndex != null) {
+            return; // Already building
+        }
+        StudentSearchIndex index = new StudentSearchIndex();
+        searchIndex = index;
+        // Listen before loading so rows added meanwhile are not missed; re-adds are harmless
+        studentDAO.addChangeListener(index);
+        appendStatus("Building search index...");
+
+        runAsync(asyncDAO.submit(() -> {
+            index.addAll(studentDAO.loadSnapshot());
+            return index.size();
+        }, 0), size -> {
+            appendStatus("✓ Search index ready (" + size + " student(s)).");
+            searchIndexReady = true;
+            quickSearchAsync();
+        }, error -> {
+            studentDAO.removeChangeListener(index);
+            searchIndex = null;
+            appendStatus("❌ Error building search index: " + describe(error));
+        });
+    }
+
+    // A new View All or Search supersedes the previous one, which is cancelled
+    private <T> void runRead(String progress, String errorContext, CompletableFuture<T> future,
+                             Consumer<T> onSuccess) {
+        if (currentRead != null) {
+            currentRead.cancel(true);
+        }
+        currentRead = future;
+        runAsync(progress, errorContext, future, onSuccess);
+    }
+
+    // Shows progress while the future runs, then reports its result or error on the EDT
+    private <T> void runAsync(String progress, String errorContext, CompletableFuture<T> future,
+                              Consumer<T> onSuccess) {
+        showProgress(true, progress + "...");
+        runAsync(future, result -> {
+            showProgress(false, "");
+            onSuccess.accept(result);
+        }, error -> {
+            showProgress(false, "");
+            appendStatus("❌ Error " + errorContext + ": " + describe(error));
+            JOptionPane.showMessageDialog(StudentDBManagerUI.this,
+                    "Error " + errorContext + ": " + describe(error),
+                    "Database Error",
+                    JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private <T> void runAsync(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        SwingAsync.onEdt(future, onSuccess, onError);
+    }
+
+    private static String describe(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "timed out";
+        }
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    // The sorter moves to the new model first, so the table never sees it out of step
+    private void showModel(StudentTableModel model) {
+        if (table.getModel() != model) {
+            rowSorter.setModel(model);
+            table.setModel(model);
+            updateViewStatus();
+        }
     }
 
     private void showProgress(boolean show, String message) {
@@ -426,10 +1176,18 @@ public class StudentDBManagerUI extends JFrame {
         }
     }
 
+    private void showProgress(int percent, String message) {
+        if (message != null) {
+            progressMessage = message;
+        }
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(false);
+        progressBar.setValue(percent);
+        progressBar.setString(progressMessage + " " + percent + "%");
+    }
+
     private void appendStatus(String msg) {
-        txtStatus.append("[" + java.time.LocalTime.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss")) + "] " + msg + "\n");
-        txtStatus.setCaretPosition(txtStatus.getDocument().getLength());
+        statusLog.log(msg);
     }
 
     private void clearInputFields() {
@@ -440,7 +1198,20 @@ public class StudentDBManagerUI extends JFrame {
         txtSearchId.setText("");
     }
 
+    // The database work starts before the EDT does anything, so the driver, the first
+    // connections and the first page load while Swing builds the window
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new StudentDBManagerUI().setVisible(true));
+        StartupPipeline startup = StartupPipeline.start(PagedStudentTableModel.DEFAULT_PAGE_SIZE,
+                StudentSnapshotFile.fromEnvironment() == null);
+        SwingUtilities.invokeLater(() -> {
+            StudentDBManagerUI ui = new StudentDBManagerUI(startup);
+            ui.addWindowListener(new java.awt.event.WindowAdapter() {
+                @Override
+                public void windowOpened(java.awt.event.WindowEvent e) {
+                    startup.mark("window shown");
+                }
+            });
+            ui.setVisible(true);
+        });
     }
 }
\ No newline at end of file
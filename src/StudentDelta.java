@@ -0,0 +1,41 @@
+import java.util.List;
+
+// Rows changed since a watermark, in (updated_at, id) order. Rows with an id above the old
+// watermark's maxId are new; the rest were updated. When the delta is truncated, or the new
+// watermark's row count shows rows were deleted, the caller should fall back to a full
+// reload instead of merging it.
+public class StudentDelta {
+
+    private final List<Student> changed;
+    private final StudentWatermark since;
+    private final StudentWatermark watermark;
+    private final boolean truncated;
+
+    public StudentDelta(List<Student> changed, StudentWatermark since, StudentWatermark watermark, boolean truncated) {
+        this.changed = changed;
+        this.since = since;
+        this.watermark = watermark;
+        this.truncated = truncated;
+    }
+
+    public List<Student> getChanged() {
+        return changed;
+    }
+
+    public boolean isInserted(Student s) {
+        return s.getId() > since.getMaxId();
+    }
+
+    // Where to continue from on the next refresh
+    public StudentWatermark getWatermark() {
+        return watermark;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Cell edits made in the student table, held until they are saved together with one
+// StudentDAO.updateStudents call. Edits are keyed by id, so they survive switching between
+// views and a page being evicted and fetched again. Each edited student keeps the version
+// of the row it was first edited from, so saving fails if someone else changed it since.
+// EDT only.
+public class StudentEditBuffer {
+
+    public interface Listener {
+        void onEditsChanged(int pending);
+
+        void onEditRejected(String message);
+    }
+
+    private final Map<Integer, Student> edits = new LinkedHashMap<>();
+    private final Map<Integer, Student> originals = new LinkedHashMap<>();
+    private final Listener listener;
+
+    public StudentEditBuffer(Listener listener) {
+        this.listener = listener;
+    }
+
+    // The edited copy, or null if the student has no unsaved edits
+    public Student get(int id) {
+        return edits.get(id);
+    }
+
+    public int size() {
+        return edits.size();
+    }
+
+    public boolean isEmpty() {
+        return edits.isEmpty();
+    }
+
+    // Applies one cell edit (column as in StudentTableModel) on top of any earlier edits to
+    // the same student. Values are checked like the Add Student form; a rejected edit leaves
+    // the buffer as it was. Returns true if the buffer changed. Editing a student back to
+    // how it was read drops it from the buffer.
+    public boolean edit(Student row, int column, Object value) {
+        Student current = edits.getOrDefault(row.getId(), row);
+        String text = value == null ? "" : value.toString();
+        Student validated;
+        try {
+            validated = StudentValidator.validate(
+                    column == 1 ? text : current.getFirstName(),
+                    column == 2 ? text : current.getLastName(),
+                    column == 3 ? text : String.valueOf(current.getAge()),
+                    column == 4 ? text : current.getEmail());
+        } catch (IllegalArgumentException ex) {
+            listener.onEditRejected("Student " + row.getId() + ": " + ex.getMessage());
+            return false;
+        }
+        Student original = originals.getOrDefault(row.getId(), row);
+        Student edited = new Student(row.getId(), validated.getFirstName(), validated.getLastName(),
+                validated.getAge(), validated.getEmail(), original.getVersion());
+        if (sameValues(edited, current)) {
+            return false;
+        }
+        if (sameValues(edited, original)) {
+            edits.remove(row.getId());
+            originals.remove(row.getId());
+        } else {
+            originals.putIfAbsent(row.getId(), copy(row));
+            edits.put(row.getId(), edited);
+        }
+        listener.onEditsChanged(edits.size());
+        return true;
+    }
+
+    // Copies, in the order the students were first edited
+    public List<Student> getEdits() {
+        List<Student> copies = new ArrayList<>(edits.size());
+        for (Student s : edits.values()) {
+            copies.add(copy(s));
+        }
+        return copies;
+    }
+
+    public void remove(Collection<Integer> ids) {
+        boolean changed = false;
+        for (Integer id : ids) {
+            changed |= edits.remove(id) != null;
+            originals.remove(id);
+        }
+        if (changed) {
+            listener.onEditsChanged(edits.size());
+        }
+    }
+
+    public void clear() {
+        if (!edits.isEmpty()) {
+            edits.clear();
+            originals.clear();
+            listener.onEditsChanged(0);
+        }
+    }
+
+    private static boolean sameValues(Student a, Student b) {
+        return a.getAge() == b.getAge()
+                && Objects.equals(a.getFirstName(), b.getFirstName())
+                && Objects.equals(a.getLastName(), b.getLastName())
+                && Objects.equals(a.getEmail(), b.getEmail());
+    }
+
+    private static Student copy(Student s) {
+        return new Student(s.getId(), s.getFirstName(), s.getLastName(), s.getAge(), s.getEmail(), s.getVersion());
+    }
+}
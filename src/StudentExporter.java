@@ -0,0 +1,309 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+// Streams the whole students table to a CSV or JSON Lines file in constant memory. Rows go
+// from the driver's streaming cursor into a 64 KB buffer as raw UTF-8 bytes and from there
+// into a FileChannel, optionally through gzip; no Student or String is created per row.
+// The file is written under a temporary name and only moved into place once complete.
+public class StudentExporter {
+
+    public enum Format {
+        CSV, JSONL;
+
+        // "roster.csv", "roster.jsonl" and "roster.json", each optionally followed by ".gz"
+        public static Format forFile(Path file) {
+            String name = stripGzip(file.getFileName().toString().toLowerCase(Locale.ROOT));
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+                return JSONL;
+            }
+            throw new IllegalArgumentException("Unknown export format for " + file.getFileName()
+                    + " (use .csv or .jsonl, optionally with .gz)");
+        }
+    }
+
+    public interface Listener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 4096;
+    private static final byte[] CSV_HEADER = ascii("id,first_name,last_name,age,email\n");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    private static final byte[] JSON_ID = ascii("{\"id\":");
+    private static final byte[] JSON_FIRST_NAME = ascii(",\"first_name\":");
+    private static final byte[] JSON_LAST_NAME = ascii(",\"last_name\":");
+    private static final byte[] JSON_AGE = ascii(",\"age\":");
+    private static final byte[] JSON_EMAIL = ascii(",\"email\":");
+    private static final byte[] JSON_END = ascii("}\n");
+    private static final byte[] JSON_NULL = ascii("null");
+    private static final byte[] JSON_CONTROL = ascii("\\u00");
+
+    private final StudentDAO dao;
+
+    public StudentExporter(StudentDAO dao) {
+        this.dao = dao;
+    }
+
+    public static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    // Format and compression follow the file name. Returns the number of rows written.
+    public long exportTo(Path file, Listener listener) throws IOException, SQLException {
+        return exportTo(file, Format.forFile(file), isGzip(file), listener);
+    }
+
+    // Stops with an InterruptedIOException if the calling thread is interrupted; the
+    // partial file is removed and an existing file at the target is left untouched.
+    public long exportTo(Path file, Format format, boolean gzip, Listener listener) throws IOException, SQLException {
+        Path target = file.toAbsolutePath();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        // Only used for progress; rows added during the export are still written
+        long totalRows = dao.countStudents();
+        boolean complete = false;
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             RowWriter out = new RowWriter(channel, gzip)) {
+            long written = writeRows(out, format, listener, totalRows);
+            out.finish();
+            channel.force(false);
+            listener.onProgress(written, written);
+            complete = true;
+            return written;
+        } finally {
+            if (complete) {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    // Streams the table to an open stream, such as an HTTP response body. The stream is
+    // flushed but left open. Returns the number of rows written.
+    public long exportTo(OutputStream stream, Format format) throws IOException, SQLException {
+        try (RowWriter out = new RowWriter(stream)) {
+            long written = writeRows(out, format, (rowsWritten, totalRows) -> { }, -1);
+            out.finish();
+            return written;
+        }
+    }
+
+    private long writeRows(RowWriter out, Format format, Listener listener, long totalRows)
+            throws IOException, SQLException {
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+        }
+        long[] written = {0};
+        dao.streamStudents((id, firstName, lastName, age, email) -> {
+            if (format == Format.CSV) {
+                writeCsvRow(out, id, firstName, lastName, age, email);
+            } else {
+                writeJsonRow(out, id, firstName, lastName, age, email);
+            }
+            if (++written[0] % PROGRESS_INTERVAL == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Export cancelled");
+                }
+                listener.onProgress(written[0], Math.max(totalRows, written[0]));
+            }
+        });
+        return written[0];
+    }
+
+    private static void writeCsvRow(RowWriter out, int id, byte[] firstName, byte[] lastName,
+                                    int age, byte[] email) throws IOException {
+        out.writeInt(id);
+        out.write((byte) ',');
+        writeCsvField(out, firstName);
+        out.write((byte) ',');
+        writeCsvField(out, lastName);
+        out.write((byte) ',');
+        out.writeInt(age);
+        out.write((byte) ',');
+        writeCsvField(out, email);
+        out.write((byte) '\n');
+    }
+
+    // NULL becomes an empty field; quoting follows RFC 4180, as CsvReader expects
+    private static void writeCsvField(RowWriter out, byte[] value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (byte b : value) {
+            if (b == ',' || b == '"' || b == '\n' || b == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write((byte) '"');
+        for (byte b : value) {
+            if (b == '"') {
+                out.write((byte) '"');
+            }
+            out.write(b);
+        }
+        out.write((byte) '"');
+    }
+
+    private static void writeJsonRow(RowWriter out, int id, byte[] firstName, byte[] lastName,
+                                     int age, byte[] email) throws IOException {
+        out.write(JSON_ID);
+        out.writeInt(id);
+        out.write(JSON_FIRST_NAME);
+        writeJsonString(out, firstName);
+        out.write(JSON_LAST_NAME);
+        writeJsonString(out, lastName);
+        out.write(JSON_AGE);
+        out.writeInt(age);
+        out.write(JSON_EMAIL);
+        writeJsonString(out, email);
+        out.write(JSON_END);
+    }
+
+    // Multi-byte UTF-8 sequences never contain bytes below 0x80, so they pass through as is
+    private static void writeJsonString(RowWriter out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write(JSON_NULL);
+            return;
+        }
+        out.write((byte) '"');
+        for (byte b : value) {
+            if (b == '"' || b == '\\') {
+                out.write((byte) '\\');
+                out.write(b);
+            } else if (b >= 0 && b < 0x20) {
+                out.write(JSON_CONTROL);
+                out.write(HEX[b >> 4]);
+                out.write(HEX[b & 0xF]);
+            } else {
+                out.write(b);
+            }
+        }
+        out.write((byte) '"');
+    }
+
+    private static String stripGzip(String name) {
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Byte buffer in front of the channel, of a gzip stream writing to the channel, or of
+    // a caller's stream
+    private static final class RowWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final GZIPOutputStream gzip;
+        private final OutputStream stream;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] digits = new byte[11];
+        private int position;
+
+        private RowWriter(FileChannel channel, boolean gzip) throws IOException {
+            this.channel = channel;
+            OutputStream out = Channels.newOutputStream(channel);
+            this.gzip = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            this.stream = this.gzip;
+        }
+
+        private RowWriter(OutputStream stream) {
+            this.channel = null;
+            this.gzip = null;
+            this.stream = stream;
+        }
+
+        private void write(byte b) throws IOException {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = b;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    drain(bytes, bytes.length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeInt(int value) throws IOException {
+            if (value == Integer.MIN_VALUE) {
+                write(ascii(Integer.toString(value)));
+                return;
+            }
+            boolean negative = value < 0;
+            int v = negative ? -value : value;
+            int i = digits.length;
+            do {
+                digits[--i] = (byte) ('0' + v % 10);
+                v /= 10;
+            } while (v != 0);
+            if (negative) {
+                digits[--i] = '-';
+            }
+            for (; i < digits.length; i++) {
+                write(digits[i]);
+            }
+        }
+
+        private void flush() throws IOException {
+            drain(buffer, position);
+            position = 0;
+        }
+
+        private void drain(byte[] bytes, int length) throws IOException {
+            if (stream != null) {
+                stream.write(bytes, 0, length);
+                return;
+            }
+            ByteBuffer src = ByteBuffer.wrap(bytes, 0, length);
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+
+        private void finish() throws IOException {
+            flush();
+            if (gzip != null) {
+                gzip.finish();
+            } else if (stream != null) {
+                stream.flush();
+            }
+        }
+
+        // Also closes the channel when gzip is used; the caller closes it again harmlessly
+        @Override
+        public void close() throws IOException {
+            if (gzip != null) {
+                gzip.close();
+            }
+        }
+    }
+}
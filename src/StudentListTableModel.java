@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Small, fully loaded result sets such as search results
+public class StudentListTableModel extends StudentTableModel {
+
+    private List<Student> students = new ArrayList<>();
+    // Handed to the sorter; rebuilt after every change
+    private StudentRows loadedRows;
+
+    public void setStudents(List<Student> students) {
+        this.students = new ArrayList<>(students);
+        loadedRows = null;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public StudentRows getLoadedRows() {
+        if (loadedRows == null) {
+            loadedRows = new ListRows(List.copyOf(students));
+        }
+        return loadedRows;
+    }
+
+    // Swaps in the given versions of students already listed
+    public void replaceStudents(Collection<Student> updated) {
+        Map<Integer, Student> byId = new HashMap<>();
+        for (Student s : updated) {
+            byId.put(s.getId(), s);
+        }
+        for (int row = 0; row < students.size(); row++) {
+            Student s = byId.get(students.get(row).getId());
+            if (s != null) {
+                students.set(row, s);
+                loadedRows = null;
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    public void removeStudents(Collection<Integer> ids) {
+        Set<Integer> removed = new HashSet<>(ids);
+        for (int row = students.size() - 1; row >= 0; row--) {
+            if (removed.contains(students.get(row).getId())) {
+                students.remove(row);
+                loadedRows = null;
+                fireTableRowsDeleted(row, row);
+            }
+        }
+    }
+
+    @Override
+    public Student getStudentAt(int row) {
+        return students.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return students.size();
+    }
+
+    private static final class ListRows implements StudentRows {
+        private final List<Student> students;
+
+        private ListRows(List<Student> students) {
+            this.students = students;
+        }
+
+        @Override
+        public int size() {
+            return students.size();
+        }
+
+        @Override
+        public int getAge(int row) {
+            return students.get(row).getAge();
+        }
+
+        @Override
+        public int[] sortKeys(int column) {
+            if (column == 0 || column == 3) {
+                int[] keys = new int[students.size()];
+                for (int row = 0; row < keys.length; row++) {
+                    Student s = students.get(row);
+                    keys[row] = column == 0 ? s.getId() : s.getAge();
+                }
+                return keys;
+            }
+            String[] values = new String[students.size()];
+            for (int row = 0; row < values.length; row++) {
+                Student s = students.get(row);
+                values[row] = column == 1 ? s.getFirstName() : column == 2 ? s.getLastName() : s.getEmail();
+            }
+            return StudentRowSorter.rankText(values);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// RowSorter for the student table that sorts and filters on a background thread, so a click
+// on a column header never freezes the window, however many rows are loaded.
+//
+// The view is a plain int[] of model row indices. Sorting packs each row's sort key and
+// index into one long and sorts those, in parallel for large tables; sort keys come from
+// StudentRows (raw ints, or ranks for text columns) and are cached per column until the rows
+// change. The finished permutation replaces the old one in a single step on the EDT, and
+// the JTable keeps its selection through the swap. Until then the old order stays on screen.
+//
+// Only models with all rows loaded are sorted (search results and the local snapshot); for
+// the paged View All table the sorter passes rows straight through. One sort column at a
+// time; rows with equal keys stay in model order.
+public class StudentRowSorter extends RowSorter<StudentTableModel> {
+
+    // Arrays.parallelSort does not split arrays below this size either
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    // Names and emails sort case-insensitively, nulls first; exact case breaks ties
+    static final Comparator<String> TEXT_ORDER = StudentRowSorter::compareText;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "student-row-sorter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // EDT only
+    private StudentTableModel model;
+    private boolean sortable;
+    private List<SortKey> sortKeys = List.of();
+    private Integer minAge;
+    private Integer maxAge;
+    // null while rows are shown in model order
+    private int[] viewToModel;
+    private int[] modelToView;
+    // Model row count viewToModel was built for
+    private int mappedRows;
+    private int generation;
+    private boolean sortScheduled;
+    private boolean pending;
+    private long lastSortMillis;
+
+    // Worker thread only
+    private StudentRows keyedRows;
+    private final Map<Integer, int[]> keyCache = new HashMap<>();
+
+    // Rank of each value in TEXT_ORDER, equal values sharing a rank. One sort of
+    // (value, index) pairs, so every value is compared O(log n) times in total.
+    static int[] rankText(String[] values) {
+        Ranked[] sorted = new Ranked[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sorted[i] = new Ranked(values[i], i);
+        }
+        Comparator<Ranked> order = (a, b) -> compareText(a.value(), b.value());
+        if (sorted.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(sorted, order);
+        } else {
+            Arrays.sort(sorted, order);
+        }
+        int[] ranks = new int[values.length];
+        int rank = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && !Objects.equals(sorted[i].value(), sorted[i - 1].value())) {
+                rank = i;
+            }
+            ranks[sorted[i].index()] = rank;
+        }
+        return ranks;
+    }
+
+    private record Ranked(String value, int index) {
+    }
+
+    // Written out rather than composed from Comparator combinators: this runs n log n times
+    // per text column sort
+    private static int compareText(String a, String b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : a == null ? -1 : 1;
+        }
+        int c = a.compareToIgnoreCase(b);
+        return c != 0 ? c : a.compareTo(b);
+    }
+
+    public StudentRowSorter(StudentTableModel model) {
+        setModel(model);
+    }
+
+    // Call before handing the model to the JTable; the sort order and filter carry over
+    public void setModel(StudentTableModel model) {
+        this.model = model;
+        sortable = model.getLoadedRows() != null;
+        viewToModel = null;
+        modelToView = null;
+        schedule();
+    }
+
+    @Override
+    public StudentTableModel getModel() {
+        return model;
+    }
+
+    // Ascending, then descending, then back to model order
+    @Override
+    public void toggleSortOrder(int column) {
+        if (!sortable) {
+            return;
+        }
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column) {
+            order = sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING ? SortOrder.DESCENDING : SortOrder.UNSORTED;
+        }
+        setSortKeys(order == SortOrder.UNSORTED ? List.of() : List.of(new SortKey(column, order)));
+    }
+
+    // Only the first key is used
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> newKeys = keys == null || keys.isEmpty() ? List.of() : List.of(keys.get(0));
+        if (newKeys.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = newKeys;
+        fireSortOrderChanged();
+        schedule();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortable ? sortKeys : List.of();
+    }
+
+    // Keeps students aged min..max inclusive; null leaves that end open
+    public void setAgeFilter(Integer min, Integer max) {
+        minAge = min;
+        maxAge = max;
+        schedule();
+    }
+
+    public boolean isFiltered() {
+        return sortable && (minAge != null || maxAge != null);
+    }
+
+    public boolean isSortable() {
+        return sortable;
+    }
+
+    // True from a change until the new view is on screen
+    public boolean isPending() {
+        return pending;
+    }
+
+    public long getLastSortMillis() {
+        return lastSortMillis;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (viewToModel == null) {
+            return index;
+        }
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (viewToModel == null) {
+            return index;
+        }
+        if (modelToView == null) {
+            modelToView = new int[model.getRowCount()];
+            Arrays.fill(modelToView, -1);
+            for (int view = 0; view < viewToModel.length; view++) {
+                modelToView[viewToModel[view]] = view;
+            }
+        }
+        return index >= 0 && index < modelToView.length ? modelToView[index] : -1;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? model.getRowCount() : viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    // The old order is kept if it still fits the row count, otherwise rows show in model
+    // order until the new sort is ready
+    @Override
+    public void allRowsChanged() {
+        if (viewToModel != null && mappedRows != model.getRowCount()) {
+            viewToModel = null;
+        }
+        modelToView = null;
+        schedule();
+    }
+
+    // New rows go to the end of the view until they are sorted in
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        if (viewToModel != null) {
+            int count = endRow - firstRow + 1;
+            int[] view = Arrays.copyOf(viewToModel, viewToModel.length + count);
+            for (int i = 0; i < viewToModel.length; i++) {
+                if (view[i] >= firstRow) {
+                    view[i] += count;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                view[viewToModel.length + i] = firstRow + i;
+            }
+            viewToModel = view;
+            mappedRows += count;
+            modelToView = null;
+        }
+        schedule();
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        if (viewToModel != null) {
+            int count = endRow - firstRow + 1;
+            int[] view = new int[viewToModel.length];
+            int size = 0;
+            for (int row : viewToModel) {
+                if (row < firstRow) {
+                    view[size++] = row;
+                } else if (row > endRow) {
+                    view[size++] = row - count;
+                }
+            }
+            viewToModel = Arrays.copyOf(view, size);
+            mappedRows -= count;
+            modelToView = null;
+        }
+        schedule();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        if (sortable && (!sortKeys.isEmpty() || isFiltered())) {
+            schedule();
+        }
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated(firstRow, endRow);
+    }
+
+    // Bursts of model events (one per replaced row, say) start a single sort
+    private void schedule() {
+        generation++;
+        if (!sortable || (sortKeys.isEmpty() && minAge == null && maxAge == null)) {
+            pending = false;
+            if (viewToModel != null) {
+                int[] last = viewToModel;
+                viewToModel = null;
+                modelToView = null;
+                fireRowSorterChanged(last);
+            }
+            return;
+        }
+        pending = true;
+        if (!sortScheduled) {
+            sortScheduled = true;
+            SwingUtilities.invokeLater(this::startSort);
+        }
+    }
+
+    private void startSort() {
+        sortScheduled = false;
+        if (!pending) {
+            return;
+        }
+        int sortGeneration = generation;
+        StudentRows rows = model.getLoadedRows();
+        int rowCount = rows.size();
+        SortKey key = sortKeys.isEmpty() ? null : sortKeys.get(0);
+        int min = minAge == null ? Integer.MIN_VALUE : minAge;
+        int max = maxAge == null ? Integer.MAX_VALUE : maxAge;
+        worker.execute(() -> {
+            long start = System.nanoTime();
+            int[] view = sort(rows, key, min, max);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            SwingUtilities.invokeLater(() -> {
+                // Anything that changed meanwhile has scheduled another sort
+                if (sortGeneration != generation) {
+                    return;
+                }
+                int[] last = viewToModel;
+                viewToModel = view;
+                mappedRows = rowCount;
+                modelToView = null;
+                pending = false;
+                lastSortMillis = millis;
+                fireRowSorterChanged(last);
+            });
+        });
+    }
+
+    private int[] sort(StudentRows rows, SortKey key, int minAge, int maxAge) {
+        int size = rows.size();
+        int[] selected = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int age = rows.getAge(row);
+            if (age >= minAge && age <= maxAge) {
+                selected[count++] = row;
+            }
+        }
+        if (key == null) {
+            return count == size ? selected : Arrays.copyOf(selected, count);
+        }
+
+        if (rows != keyedRows) {
+            keyCache.clear();
+            keyedRows = rows;
+        }
+        int[] keys = keyCache.computeIfAbsent(key.getColumn(), rows::sortKeys);
+        boolean descending = key.getSortOrder() == SortOrder.DESCENDING;
+        // Key in the high half, row in the low half: sorting the longs sorts by key, then row
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            int row = selected[i];
+            int k = descending ? ~keys[row] : keys[row];
+            packed[i] = ((long) k << 32) | row;
+        }
+        if (count >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(packed);
+        } else {
+            Arrays.sort(packed);
+        }
+        int[] view = new int[count];
+        for (int i = 0; i < count; i++) {
+            view[i] = (int) packed[i];
+        }
+        return view;
+    }
+}
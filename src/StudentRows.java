@@ -0,0 +1,12 @@
+// Fully loaded rows that do not change once handed out, so StudentRowSorter can read them
+// off the EDT. Columns are numbered as in StudentTableModel.
+public interface StudentRows {
+
+    int size();
+
+    int getAge(int row);
+
+    // One int per row, ordered the way the column's values sort: the value itself for id and
+    // age, the value's rank among the column's values (StudentRowSorter.rankText) for text
+    int[] sortKeys(int column);
+}
@@ -0,0 +1,386 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory trigram index over first name, last name and email for search-as-you-type.
+// Terms of three or more characters match anywhere in a field; shorter terms match the
+// start of a field or of a word inside it ("jo" finds "John" and "mary.jones@...").
+// Every term of a query must match; results are ranked by how well they match.
+//
+// Replacing or removing a student only marks its doc dead; search() skips dead docs. Once
+// dead docs pass a quarter of the live ones, the index is compacted: live docs are
+// renumbered and the postings rewritten, so a long session of updates does not grow it.
+public class StudentSearchIndex implements StudentChangeListener {
+
+    // Marks the start of a word so short terms can use prefix trigrams
+    private static final char WORD_START = '\u0002';
+
+    private static final int SCORE_EXACT = 100;
+    private static final int SCORE_FIELD_PREFIX = 60;
+    private static final int SCORE_WORD_PREFIX = 40;
+    private static final int SCORE_SUBSTRING = 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Student> docs = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private int deadDocs;
+    // Removed ids map to -1 until the next compaction rebuilds the map without them
+    private IntIntHashMap docById = new IntIntHashMap();
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    @Override
+    public void onStudentsAdded(List<Student> students) {
+        addAll(students);
+    }
+
+    @Override
+    public void onStudentsUpdated(List<Student> students) {
+        addAll(students);
+    }
+
+    @Override
+    public void onStudentsDeleted(List<Integer> ids) {
+        removeAll(ids);
+    }
+
+    // Adding a student whose id is already indexed replaces the old entry
+    public void add(Student s) {
+        lock.writeLock().lock();
+        try {
+            addLocked(s);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(Iterable<Student> students) {
+        lock.writeLock().lock();
+        try {
+            for (Student s : students) {
+                addLocked(s);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Iterable<Integer> ids) {
+        lock.writeLock().lock();
+        try {
+            for (int id : ids) {
+                int doc = docById.get(id, -1);
+                if (doc >= 0) {
+                    kill(doc);
+                    docById.put(id, -1);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(StudentSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            for (int row = 0; row < snapshot.size(); row++) {
+                addLocked(snapshot.toStudent(row));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size() - deadDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Top `limit` matches, best first. Gives up with no results if the calling thread is
+    // interrupted, as a superseded search-as-you-type query is.
+    public List<Student> search(String query, int limit) {
+        String[] terms = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        if (terms.length == 0 || terms[0].isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            IntList candidates = null;
+            for (String term : terms) {
+                IntList termDocs = candidatesFor(term);
+                candidates = candidates == null ? termDocs : candidates.intersect(termDocs);
+                if (candidates.size() == 0) {
+                    return List.of();
+                }
+            }
+
+            // Min-heap on score keeps only the best `limit` docs
+            PriorityQueue<long[]> best = new PriorityQueue<>(limit + 1,
+                    (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+            for (int i = 0; i < candidates.size(); i++) {
+                if ((i & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                    return List.of();
+                }
+                int doc = candidates.get(i);
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                long score = score(docs.get(doc), terms);
+                if (score > 0) {
+                    best.add(new long[]{score, doc});
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+
+            Student[] result = new Student[best.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = copy(docs.get((int) best.poll()[1]));
+            }
+            return Arrays.asList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(Student s) {
+        int previous = docById.get(s.getId(), -1);
+        if (previous >= 0) {
+            kill(previous);
+        }
+        int doc = docs.size();
+        docs.add(copy(s));
+        docById.put(s.getId(), doc);
+        indexField(s.getFirstName(), doc);
+        indexField(s.getLastName(), doc);
+        indexField(s.getEmail(), doc);
+    }
+
+    // Drops the Student right away; the doc id stays in the postings until the next compaction
+    private void kill(int doc) {
+        deleted.set(doc);
+        docs.set(doc, null);
+        deadDocs++;
+    }
+
+    private void compactIfNeeded() {
+        if (deadDocs == 0 || deadDocs * 4L < docs.size() - deadDocs) {
+            return;
+        }
+        // Live docs keep their relative order, so the postings stay sorted
+        int[] renumbered = new int[docs.size()];
+        int live = 0;
+        docById = new IntIntHashMap(docs.size() - deadDocs);
+        for (int doc = 0; doc < docs.size(); doc++) {
+            if (deleted.get(doc)) {
+                renumbered[doc] = -1;
+            } else {
+                Student s = docs.get(doc);
+                renumbered[doc] = live;
+                docs.set(live++, s);
+                docById.put(s.getId(), renumbered[doc]);
+            }
+        }
+        docs.subList(live, docs.size()).clear();
+        for (Iterator<IntList> it = postings.values().iterator(); it.hasNext(); ) {
+            IntList list = it.next();
+            list.renumber(renumbered);
+            if (list.size() == 0) {
+                it.remove();
+            }
+        }
+        deleted.clear();
+        deadDocs = 0;
+    }
+
+    private void indexField(String value, int doc) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        String text = value.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            post(key(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2)), doc);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (isWordStart(text, i)) {
+                post(key(WORD_START, WORD_START, text.charAt(i)), doc);
+                if (i + 1 < text.length()) {
+                    post(key(WORD_START, text.charAt(i), text.charAt(i + 1)), doc);
+                }
+            }
+        }
+    }
+
+    private void post(long key, int doc) {
+        IntList list = postings.computeIfAbsent(key, k -> new IntList());
+        // Docs are added in increasing order, so each list stays sorted and duplicate-free
+        if (list.size() == 0 || list.get(list.size() - 1) != doc) {
+            list.add(doc);
+        }
+    }
+
+    private IntList candidatesFor(String term) {
+        if (term.length() < 3) {
+            long key = term.length() == 1
+                    ? key(WORD_START, WORD_START, term.charAt(0))
+                    : key(WORD_START, term.charAt(0), term.charAt(1));
+            return postings.getOrDefault(key, IntList.EMPTY);
+        }
+        // Intersect starting from the rarest trigram
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            IntList list = postings.get(key(term.charAt(i), term.charAt(i + 1), term.charAt(i + 2)));
+            if (list == null) {
+                return IntList.EMPTY;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        IntList result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size() > 0; i++) {
+            result = result.intersect(lists.get(i));
+        }
+        return result;
+    }
+
+    // Sum over terms of the best field match; 0 if any term does not really match
+    // (trigram hits are only candidates). Names weigh slightly more than email.
+    private static long score(Student s, String[] terms) {
+        long total = 0;
+        for (String term : terms) {
+            int best = Math.max(Math.max(
+                    matchScore(s.getFirstName(), term) + 2,
+                    matchScore(s.getLastName(), term) + 2),
+                    matchScore(s.getEmail(), term));
+            if (best <= 2) {
+                return 0;
+            }
+            total += best;
+        }
+        // Shorter fields rank first among equal scores
+        int length = length(s.getFirstName()) + length(s.getLastName()) + length(s.getEmail());
+        return total * 1024 + Math.max(0, 1023 - length);
+    }
+
+    private static int matchScore(String field, String term) {
+        if (field == null || field.length() < term.length()) {
+            return 0;
+        }
+        if (field.length() == term.length() && field.equalsIgnoreCase(term)) {
+            return SCORE_EXACT;
+        }
+        if (field.regionMatches(true, 0, term, 0, term.length())) {
+            return SCORE_FIELD_PREFIX;
+        }
+        int substring = 0;
+        for (int i = 1; i + term.length() <= field.length(); i++) {
+            if (field.regionMatches(true, i, term, 0, term.length())) {
+                if (isWordStart(field, i)) {
+                    return SCORE_WORD_PREFIX;
+                }
+                substring = term.length() >= 3 ? SCORE_SUBSTRING : 0;
+            }
+        }
+        return substring;
+    }
+
+    private static boolean isWordStart(String text, int i) {
+        return Character.isLetterOrDigit(text.charAt(i))
+                && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static long key(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static Student copy(Student s) {
+        return new Student(s.getId(), s.getFirstName(), s.getLastName(), s.getAge(), s.getEmail(), s.getVersion());
+    }
+
+    // Growable sorted int list used for postings
+    private static final class IntList {
+        private static final IntList EMPTY = new IntList(0);
+
+        private int[] values;
+        private int size;
+
+        private IntList() {
+            this(4);
+        }
+
+        private IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+            }
+            values[size++] = value;
+        }
+
+        private int get(int index) {
+            return values[index];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        // Maps each value through renumbered, dropping those mapped to -1
+        private void renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int value = renumbered[values[i]];
+                if (value >= 0) {
+                    values[kept++] = value;
+                }
+            }
+            size = kept;
+            if (values.length > 16 && kept < values.length / 4) {
+                values = Arrays.copyOf(values, Math.max(4, kept + (kept >> 1)));
+            }
+        }
+
+        private IntList intersect(IntList other) {
+            IntList result = new IntList(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                int a = values[i];
+                int b = other.values[j];
+                if (a == b) {
+                    result.add(a);
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
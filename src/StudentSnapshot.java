@@ -0,0 +1,461 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Read-only, column-oriented copy of the students table. Ids and ages are primitive arrays,
+// names are dictionary-encoded UTF-8 (first/last names repeat a lot) and emails are packed
+// UTF-8. Rows are exposed through flyweight Student views that decode on access.
+public class StudentSnapshot implements StudentRows {
+
+    private final int size;
+    private final int[] ids;
+    private final int[] ages;
+    private final StringColumn firstNames;
+    private final StringColumn lastNames;
+    private final StringColumn emails;
+    private final IntIntHashMap rowById;
+
+    StudentSnapshot(int size, int[] ids, int[] ages,
+                    StringColumn firstNames, StringColumn lastNames, StringColumn emails) {
+        this.size = size;
+        this.ids = ids;
+        this.ages = ages;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.emails = emails;
+        this.rowById = new IntIntHashMap(size);
+        for (int row = 0; row < size; row++) {
+            rowById.put(ids[row], row);
+        }
+    }
+
+    public static StudentSnapshot empty() {
+        return new Builder().build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    public String getFirstName(int row) {
+        return firstNames.get(row);
+    }
+
+    public String getLastName(int row) {
+        return lastNames.get(row);
+    }
+
+    public String getEmail(int row) {
+        return emails.get(row);
+    }
+
+    // Id and age keys are the columns themselves and must not be modified. Names are ranked
+    // once per dictionary entry rather than once per row, since names repeat a lot.
+    @Override
+    public int[] sortKeys(int column) {
+        switch (column) {
+            case 0:
+                return ids;
+            case 1:
+                return textSortKeys(firstNames);
+            case 2:
+                return textSortKeys(lastNames);
+            case 3:
+                return ages;
+            case 4:
+                return textSortKeys(emails);
+            default:
+                throw new IllegalArgumentException("No column " + column);
+        }
+    }
+
+    private int[] textSortKeys(StringColumn column) {
+        int entries = column.isDictionaryEncoded() ? column.dictionarySize() : size;
+        String[] values = new String[entries];
+        for (int code = 0; code < entries; code++) {
+            values[code] = column.value(code);
+        }
+        int[] ranks = StudentRowSorter.rankText(values);
+        if (!column.isDictionaryEncoded()) {
+            return ranks;
+        }
+        int[] keys = new int[size];
+        int[] codes = column.codes();
+        for (int row = 0; row < size; row++) {
+            keys[row] = ranks[codes[row]];
+        }
+        return keys;
+    }
+
+    // Row index of the student with this id, or -1
+    public int findRow(int id) {
+        return rowById.get(id, -1);
+    }
+
+    public Student getById(int id) {
+        int row = findRow(id);
+        return row < 0 ? null : getStudent(row);
+    }
+
+    // A view over one row; it holds nothing but the row index
+    public Student getStudent(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return new View(row);
+    }
+
+    // Visits every row through a single reused view; do not keep the reference
+    public void forEach(Consumer<Student> action) {
+        View view = new View(0);
+        for (int row = 0; row < size; row++) {
+            view.row = row;
+            action.accept(view);
+        }
+    }
+
+    // Detached, mutable copy of one row
+    public Student toStudent(int row) {
+        return new Student(ids[row], getFirstName(row), getLastName(row), ages[row], getEmail(row));
+    }
+
+    // A new snapshot with these rows replacing the ones with the same id, or inserted in id
+    // order where there is none; this snapshot is left as it is
+    public StudentSnapshot withChanges(List<Student> changed) {
+        if (changed.isEmpty()) {
+            return this;
+        }
+        List<Student> sorted = new ArrayList<>(changed);
+        sorted.sort(Comparator.comparingInt(Student::getId));
+        Builder builder = new Builder(size + sorted.size());
+        int row = 0;
+        for (Student s : sorted) {
+            while (row < size && ids[row] < s.getId()) {
+                copyRow(builder, row++);
+            }
+            if (row < size && ids[row] == s.getId()) {
+                row++;
+            }
+            builder.add(s);
+        }
+        while (row < size) {
+            copyRow(builder, row++);
+        }
+        return builder.build();
+    }
+
+    private void copyRow(Builder builder, int row) {
+        builder.add(ids[row], getFirstName(row), getLastName(row), ages[row], getEmail(row));
+    }
+
+    StringColumn firstNameColumn() {
+        return firstNames;
+    }
+
+    StringColumn lastNameColumn() {
+        return lastNames;
+    }
+
+    StringColumn emailColumn() {
+        return emails;
+    }
+
+    int[] idColumn() {
+        return ids;
+    }
+
+    int[] ageColumn() {
+        return ages;
+    }
+
+    public long memoryUsageBytes() {
+        return arrayBytes(4, ids.length) + arrayBytes(4, ages.length)
+                + firstNames.memoryUsageBytes() + lastNames.memoryUsageBytes() + emails.memoryUsageBytes()
+                + rowById.memoryUsageBytes();
+    }
+
+    // What the same rows would take as an ArrayList<Student> with one String per field
+    // (compressed oops, compact Latin-1 strings)
+    public long estimateListFootprintBytes() {
+        long bytes = arrayBytes(4, size);
+        for (int row = 0; row < size; row++) {
+            bytes += 32
+                    + stringBytes(firstNames.byteLength(row))
+                    + stringBytes(lastNames.byteLength(row))
+                    + stringBytes(emails.byteLength(row));
+        }
+        return bytes;
+    }
+
+    public String describeMemoryUsage() {
+        long columnar = memoryUsageBytes();
+        long objects = estimateListFootprintBytes();
+        return String.format("%d rows in %.1f MB (List<Student> ≈ %.1f MB, %.0f%%); names: %d + %d distinct",
+                size, columnar / 1048576.0, objects / 1048576.0,
+                objects == 0 ? 100.0 : columnar * 100.0 / objects,
+                firstNames.dictionarySize(), lastNames.dictionarySize());
+    }
+
+    private static long arrayBytes(int elementBytes, int length) {
+        return align(16 + (long) elementBytes * length);
+    }
+
+    private static long stringBytes(int length) {
+        return 24 + arrayBytes(1, length);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private final class View extends Student {
+        private int row;
+
+        private View(int row) {
+            super(0, null, null, 0, null);
+            this.row = row;
+        }
+
+        @Override
+        public int getId() {
+            return ids[row];
+        }
+
+        @Override
+        public String getFirstName() {
+            return firstNames.get(row);
+        }
+
+        @Override
+        public String getLastName() {
+            return lastNames.get(row);
+        }
+
+        @Override
+        public int getAge() {
+            return ages[row];
+        }
+
+        @Override
+        public String getEmail() {
+            return emails.get(row);
+        }
+
+        @Override
+        public void setId(int id) {
+            throw new UnsupportedOperationException("Snapshot rows are read-only");
+        }
+
+        @Override
+        public void setFirstName(String firstName) {
+            throw new UnsupportedOperationException("Snapshot rows are read-only");
+        }
+
+        @Override
+        public void setLastName(String lastName) {
+            throw new UnsupportedOperationException("Snapshot rows are read-only");
+        }
+
+        @Override
+        public void setAge(int age) {
+            throw new UnsupportedOperationException("Snapshot rows are read-only");
+        }
+
+        @Override
+        public void setEmail(String email) {
+            throw new UnsupportedOperationException("Snapshot rows are read-only");
+        }
+    }
+
+    // UTF-8 strings packed into one byte[]; with a dictionary, rows hold codes into it
+    static final class StringColumn {
+        private final byte[] data;
+        private final int[] offsets;
+        private final int[] codes;
+        private final BitSet nullCodes;
+
+        StringColumn(byte[] data, int[] offsets, int[] codes, BitSet nullCodes) {
+            this.data = data;
+            this.offsets = offsets;
+            this.codes = codes;
+            this.nullCodes = nullCodes;
+        }
+
+        String get(int row) {
+            return value(code(row));
+        }
+
+        int code(int row) {
+            return codes == null ? row : codes[row];
+        }
+
+        String value(int code) {
+            if (nullCodes.get(code)) {
+                return null;
+            }
+            int start = offsets[code];
+            return new String(data, start, offsets[code + 1] - start, StandardCharsets.UTF_8);
+        }
+
+        int byteLength(int row) {
+            int code = code(row);
+            return offsets[code + 1] - offsets[code];
+        }
+
+        int dictionarySize() {
+            return offsets.length - 1;
+        }
+
+        boolean isDictionaryEncoded() {
+            return codes != null;
+        }
+
+        byte[] data() {
+            return data;
+        }
+
+        int[] offsets() {
+            return offsets;
+        }
+
+        int[] codes() {
+            return codes;
+        }
+
+        BitSet nullCodes() {
+            return nullCodes;
+        }
+
+        long memoryUsageBytes() {
+            return arrayBytes(1, data.length) + arrayBytes(4, offsets.length)
+                    + (codes == null ? 0 : arrayBytes(4, codes.length))
+                    + arrayBytes(8, (nullCodes.size() + 63) / 64);
+        }
+    }
+
+    public static class Builder {
+        private int size;
+        private int[] ids;
+        private int[] ages;
+        private final StringColumnBuilder firstNames = new StringColumnBuilder(true);
+        private final StringColumnBuilder lastNames = new StringColumnBuilder(true);
+        private final StringColumnBuilder emails = new StringColumnBuilder(false);
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            ids = new int[capacity];
+            ages = new int[capacity];
+        }
+
+        public Builder add(int id, String firstName, String lastName, int age, String email) {
+            if (size == ids.length) {
+                int capacity = ids.length + (ids.length >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+            }
+            ids[size] = id;
+            ages[size] = age;
+            firstNames.add(firstName);
+            lastNames.add(lastName);
+            emails.add(email);
+            size++;
+            return this;
+        }
+
+        public Builder add(Student s) {
+            return add(s.getId(), s.getFirstName(), s.getLastName(), s.getAge(), s.getEmail());
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public StudentSnapshot build() {
+            return new StudentSnapshot(size, Arrays.copyOf(ids, size), Arrays.copyOf(ages, size),
+                    firstNames.build(size), lastNames.build(size), emails.build(size));
+        }
+    }
+
+    private static final class StringColumnBuilder {
+        private final Map<String, Integer> dictionary;
+        private byte[] data = new byte[4096];
+        private int dataLength;
+        private int[] offsets = new int[1025];
+        private int entries;
+        private int[] codes;
+        private final BitSet nullCodes = new BitSet();
+        private int rows;
+
+        private StringColumnBuilder(boolean dictionaryEncoded) {
+            this.dictionary = dictionaryEncoded ? new HashMap<>() : null;
+            this.codes = dictionaryEncoded ? new int[1024] : null;
+        }
+
+        private void add(String value) {
+            int code;
+            if (dictionary == null) {
+                code = append(value);
+            } else {
+                Integer existing = dictionary.get(value);
+                if (existing == null) {
+                    code = append(value);
+                    dictionary.put(value, code);
+                } else {
+                    code = existing;
+                }
+                if (rows == codes.length) {
+                    codes = Arrays.copyOf(codes, rows + (rows >> 1));
+                }
+                codes[rows] = code;
+            }
+            rows++;
+        }
+
+        // A null value is an empty entry flagged in nullCodes
+        private int append(String value) {
+            if (entries + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+            }
+            if (value == null) {
+                nullCodes.set(entries);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (dataLength + bytes.length > data.length) {
+                    data = Arrays.copyOf(data, Math.max(dataLength + bytes.length, data.length + (data.length >> 1)));
+                }
+                System.arraycopy(bytes, 0, data, dataLength, bytes.length);
+                dataLength += bytes.length;
+            }
+            offsets[entries + 1] = dataLength;
+            return entries++;
+        }
+
+        private StringColumn build(int rowCount) {
+            return new StringColumn(
+                    Arrays.copyOf(data, dataLength),
+                    Arrays.copyOf(offsets, entries + 1),
+                    codes == null ? null : Arrays.copyOf(codes, rowCount),
+                    (BitSet) nullCodes.clone());
+        }
+    }
+}
@@ -0,0 +1,339 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.BitSet;
+import java.util.zip.CRC32C;
+
+// Local copy of the students table, so the UI has rows to show the moment it starts and
+// can still browse them with the database down. The file holds a StudentSnapshot's columns
+// as they are in memory, plus the watermark they were loaded at; reading maps the file and
+// bulk-copies each column into its array, with no per-row parsing.
+//
+// Layout, little-endian: magic, format version, CRC32C of everything after the checksum,
+// row count, watermark (updated_at millis, max id, row count), save time, then ids, ages
+// and the three string columns. A file with the wrong magic, an unknown version or a bad
+// checksum is rejected and should be rebuilt from the database.
+public class StudentSnapshotFile {
+
+    private static final int MAGIC = 0x53424453; // "SDBS" on disk
+    private static final int FORMAT_VERSION = 1;
+    private static final int CHECKSUM_OFFSET = 8;
+    private static final int HEADER_SIZE = 40;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+
+    public StudentSnapshotFile(Path file) {
+        this.file = file.toAbsolutePath();
+    }
+
+    // Off unless STUDENT_SNAPSHOT_FILE names the file: it holds every student's personal
+    // details, so keeping it on disk is a deliberate choice
+    public static StudentSnapshotFile fromEnvironment() {
+        String path = DBConnection.envString("STUDENT_SNAPSHOT_FILE", null);
+        return path == null ? null : new StudentSnapshotFile(Paths.get(path));
+    }
+
+    public Path getPath() {
+        return file;
+    }
+
+    // The stored snapshot, or null if there is no file yet
+    public Contents read() throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file " + file + " has an invalid length (" + length + " bytes)");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a student snapshot file");
+            }
+            int version = buffer.getInt(4);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Snapshot file " + file + " has format version " + version
+                        + ", expected " + FORMAT_VERSION);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(CHECKSUM_OFFSET + 4, (int) length - CHECKSUM_OFFSET - 4));
+            if ((int) crc.getValue() != buffer.getInt(CHECKSUM_OFFSET)) {
+                throw new IOException("Snapshot file " + file + " is corrupt (checksum mismatch)");
+            }
+            try {
+                return decode(buffer);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("Snapshot file " + file + " is corrupt: " + e, e);
+            }
+        }
+    }
+
+    // Replaces the file atomically: readers see either the old snapshot or the new one.
+    // Written through a buffer rather than a mapping, and on Windows the move fails while a
+    // mapping from read() is still alive; the next save then tries again.
+    public synchronized void write(StudentSnapshot snapshot, StudentWatermark watermark) throws IOException {
+        int size = snapshot.size();
+        long length = HEADER_SIZE + 8L * size
+                + columnBytes(snapshot.firstNameColumn(), size)
+                + columnBytes(snapshot.lastNameColumn(), size)
+                + columnBytes(snapshot.emailColumn(), size);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + size + " students is too large to store");
+        }
+        Files.createDirectories(file.getParent());
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        boolean complete = false;
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer start = ByteBuffer.allocate(CHECKSUM_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+                start.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+                channel.write(start, 0);
+                Output out = new Output(channel, CHECKSUM_OFFSET + 4);
+                out.putInt(size);
+                out.putLong(watermark.getUpdatedAt() == null ? NO_TIMESTAMP : watermark.getUpdatedAt().getTime());
+                out.putInt(watermark.getMaxId());
+                out.putInt(watermark.getRowCount());
+                out.putLong(System.currentTimeMillis());
+                out.putInts(snapshot.idColumn(), size);
+                out.putInts(snapshot.ageColumn(), size);
+                writeColumn(out, snapshot.firstNameColumn(), size);
+                writeColumn(out, snapshot.lastNameColumn(), size);
+                writeColumn(out, snapshot.emailColumn(), size);
+                out.flush();
+                ByteBuffer checksum = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                checksum.putInt((int) out.crc.getValue()).flip();
+                channel.write(checksum, CHECKSUM_OFFSET);
+                channel.force(false);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // Brings a snapshot up to date with the database. Changes since the watermark are merged
+    // in; if there are more than deltaLimit of them, or the merged row count disagrees with
+    // the table's (rows were deleted, or the file came from another database), everything
+    // is reloaded instead. With no watermark, everything is loaded.
+    public static Contents reconcile(StudentDAO dao, StudentSnapshot snapshot, StudentWatermark since,
+                                     int deltaLimit) throws SQLException {
+        // Read first, so rows changing during the reload are merged again next time
+        StudentWatermark current = dao.getWatermark();
+        if (since != null) {
+            StudentDelta delta = dao.getStudentsChangedSince(since, deltaLimit);
+            if (!delta.isTruncated()) {
+                StudentSnapshot merged = snapshot.withChanges(delta.getChanged());
+                if (merged.size() == current.getRowCount()) {
+                    StudentWatermark next = delta.getWatermark();
+                    return new Contents(merged,
+                            new StudentWatermark(next.getUpdatedAt(), next.getMaxId(), merged.size()),
+                            0, delta.getChanged().size(), false);
+                }
+            }
+        }
+        StudentSnapshot reloaded = dao.loadSnapshot();
+        return new Contents(reloaded, current, 0, reloaded.size(), true);
+    }
+
+    private static Contents decode(MappedByteBuffer buffer) throws IOException {
+        buffer.position(CHECKSUM_OFFSET + 4);
+        int size = buffer.getInt();
+        long updatedAtMillis = buffer.getLong();
+        int maxId = buffer.getInt();
+        int watermarkRows = buffer.getInt();
+        long savedAt = buffer.getLong();
+        if (size < 0 || 8L * size > buffer.remaining()) {
+            throw new IOException("Snapshot file has an invalid row count (" + size + ")");
+        }
+        int[] ids = new int[size];
+        int[] ages = new int[size];
+        buffer.asIntBuffer().get(ids);
+        buffer.position(buffer.position() + 4 * size);
+        buffer.asIntBuffer().get(ages);
+        buffer.position(buffer.position() + 4 * size);
+        StudentSnapshot.StringColumn firstNames = readColumn(buffer, size);
+        StudentSnapshot.StringColumn lastNames = readColumn(buffer, size);
+        StudentSnapshot.StringColumn emails = readColumn(buffer, size);
+        if (buffer.hasRemaining()) {
+            throw new IOException("Snapshot file has " + buffer.remaining() + " unexpected trailing bytes");
+        }
+        StudentWatermark watermark = new StudentWatermark(
+                updatedAtMillis == NO_TIMESTAMP ? null : new Timestamp(updatedAtMillis), maxId, watermarkRows);
+        return new Contents(new StudentSnapshot(size, ids, ages, firstNames, lastNames, emails),
+                watermark, savedAt, 0, false);
+    }
+
+    // Entry count, data length, null bitmap length in longs and a dictionary flag, followed by
+    // offsets, the row codes (dictionary columns only), the null bitmap and the UTF-8 data
+    private static long columnBytes(StudentSnapshot.StringColumn column, int size) {
+        return 16 + 4L * column.offsets().length
+                + (column.isDictionaryEncoded() ? 4L * size : 0)
+                + 8L * column.nullCodes().toLongArray().length
+                + column.data().length;
+    }
+
+    private static void writeColumn(Output out, StudentSnapshot.StringColumn column, int size) throws IOException {
+        int[] offsets = column.offsets();
+        long[] nulls = column.nullCodes().toLongArray();
+        byte[] data = column.data();
+        out.putInt(offsets.length - 1);
+        out.putInt(data.length);
+        out.putInt(nulls.length);
+        out.putInt(column.isDictionaryEncoded() ? 1 : 0);
+        out.putInts(offsets, offsets.length);
+        if (column.isDictionaryEncoded()) {
+            out.putInts(column.codes(), size);
+        }
+        for (long word : nulls) {
+            out.putLong(word);
+        }
+        out.putBytes(data);
+    }
+
+    private static StudentSnapshot.StringColumn readColumn(MappedByteBuffer buffer, int size) throws IOException {
+        int entries = buffer.getInt();
+        int dataLength = buffer.getInt();
+        int nullWords = buffer.getInt();
+        boolean dictionary = buffer.getInt() != 0;
+        long needed = 4L * (entries + 1) + (dictionary ? 4L * size : 0) + 8L * nullWords + dataLength;
+        if (entries < 0 || dataLength < 0 || nullWords < 0 || needed > buffer.remaining()
+                || (!dictionary && entries != size)) {
+            throw new IOException("Snapshot file has an invalid string column header");
+        }
+        int[] offsets = new int[entries + 1];
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + 4 * offsets.length);
+        int[] codes = null;
+        if (dictionary) {
+            codes = new int[size];
+            buffer.asIntBuffer().get(codes);
+            buffer.position(buffer.position() + 4 * size);
+        }
+        long[] nulls = new long[nullWords];
+        buffer.asLongBuffer().get(nulls);
+        buffer.position(buffer.position() + 8 * nullWords);
+        byte[] data = new byte[dataLength];
+        buffer.get(data);
+        return new StudentSnapshot.StringColumn(data, offsets, codes, BitSet.valueOf(nulls));
+    }
+
+    // Buffered, checksummed writes from a fixed file position onwards
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+        private long position;
+
+        private Output(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putInts(int[] values, int count) throws IOException {
+            int written = 0;
+            while (written < count) {
+                ensure(4);
+                int n = Math.min(count - written, buffer.remaining() / 4);
+                buffer.asIntBuffer().put(values, written, n);
+                buffer.position(buffer.position() + 4 * n);
+                written += n;
+            }
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            int written = 0;
+            while (written < bytes.length) {
+                ensure(1);
+                int n = Math.min(bytes.length - written, buffer.remaining());
+                buffer.put(bytes, written, n);
+                written += n;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+
+    public static final class Contents {
+        private final StudentSnapshot snapshot;
+        private final StudentWatermark watermark;
+        private final long savedAt;
+        private final int changedRows;
+        private final boolean reloaded;
+
+        private Contents(StudentSnapshot snapshot, StudentWatermark watermark, long savedAt,
+                         int changedRows, boolean reloaded) {
+            this.snapshot = snapshot;
+            this.watermark = watermark;
+            this.savedAt = savedAt;
+            this.changedRows = changedRows;
+            this.reloaded = reloaded;
+        }
+
+        public StudentSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public StudentWatermark getWatermark() {
+            return watermark;
+        }
+
+        // When the file was written, in epoch millis; 0 for a result that has not been saved
+        public long getSavedAt() {
+            return savedAt;
+        }
+
+        // Rows merged by reconcile, or loaded if it reloaded everything
+        public int getChangedRows() {
+            return changedRows;
+        }
+
+        public boolean isReloaded() {
+            return reloaded;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+// Summary of the students table: row count, age range and average, students per age
+// bucket and the most common email domains. StudentDAO.getStatistics computes it with
+// GROUP BY queries; fromSnapshot computes the same figures over a loaded snapshot, in
+// parallel on the fork-join pool, so the two can be compared.
+//
+// The two differ on a NULL age. The SQL leaves it out of the age figures, as MIN, MAX and
+// AVG do, but a snapshot stores ages as ints and has already read it as 0, so fromSnapshot
+// counts it as a student aged 0. They agree whenever every student has an age, which is
+// all the app itself ever writes; only rows from other writers can differ.
+public class StudentStatistics {
+
+    private final long count;
+    private final Integer minAge;
+    private final Integer maxAge;
+    private final Double averageAge;
+    private final int ageBucketWidth;
+    private final SortedMap<Integer, Long> ageHistogram;
+    private final Map<String, Long> topEmailDomains;
+
+    public StudentStatistics(long count, Integer minAge, Integer maxAge, Double averageAge, int ageBucketWidth,
+                             SortedMap<Integer, Long> ageHistogram, Map<String, Long> topEmailDomains) {
+        this.count = count;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.averageAge = averageAge;
+        this.ageBucketWidth = ageBucketWidth;
+        this.ageHistogram = Collections.unmodifiableSortedMap(ageHistogram);
+        this.topEmailDomains = Collections.unmodifiableMap(topEmailDomains);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Age figures are null while the table is empty
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public Double getAverageAge() {
+        return averageAge;
+    }
+
+    public int getAgeBucketWidth() {
+        return ageBucketWidth;
+    }
+
+    // First age of each non-empty bucket to the number of students in it, youngest first
+    public SortedMap<Integer, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+
+    // Lower-cased domain to student count, most common first (ties by name)
+    public Map<String, Long> getTopEmailDomains() {
+        return topEmailDomains;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", age min=" + minAge + " max=" + maxAge
+                + String.format(Locale.ROOT, " avg=%.2f", averageAge == null ? 0.0 : averageAge)
+                + ", histogram=" + ageHistogram + ", domains=" + topEmailDomains;
+    }
+
+    // Same figures as StudentDAO.getStatistics over an in-memory snapshot, except that a NULL
+    // age counts as 0 (see above). With parallel set, rows are split across the common
+    // fork-join pool and the partial results merged.
+    public static StudentStatistics fromSnapshot(StudentSnapshot snapshot, int ageBucketWidth,
+                                                 int topDomains, boolean parallel) {
+        if (ageBucketWidth < 1) {
+            throw new IllegalArgumentException("ageBucketWidth must be at least 1");
+        }
+        int[] ages = snapshot.ageColumn();
+        StudentSnapshot.StringColumn emails = snapshot.emailColumn();
+        IntStream rows = IntStream.range(0, snapshot.size());
+        Partial total = (parallel ? rows.parallel() : rows).collect(
+                () -> new Partial(ageBucketWidth),
+                (partial, row) -> partial.add(ages[row], emails, row),
+                Partial::merge);
+        return total.toStatistics(ageBucketWidth, topDomains);
+    }
+
+    // Ranks domains the way the SQL does: count descending, then name
+    static Map<String, Long> topDomains(Map<String, Long> counts, int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> !a.getValue().equals(b.getValue())
+                ? Long.compare(b.getValue(), a.getValue())
+                : a.getKey().compareTo(b.getKey()));
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return top;
+    }
+
+    // Per-thread accumulator for fromSnapshot
+    private static final class Partial {
+        private final int bucketWidth;
+        private long count;
+        private long ageSum;
+        private int minAge = Integer.MAX_VALUE;
+        private int maxAge = Integer.MIN_VALUE;
+        private final Map<Integer, long[]> buckets = new HashMap<>();
+        private final Map<String, Long> domains = new HashMap<>();
+
+        private Partial(int bucketWidth) {
+            this.bucketWidth = bucketWidth;
+        }
+
+        private void add(int age, StudentSnapshot.StringColumn emails, int row) {
+            count++;
+            ageSum += age;
+            minAge = Math.min(minAge, age);
+            maxAge = Math.max(maxAge, age);
+            buckets.computeIfAbsent(Math.floorDiv(age, bucketWidth) * bucketWidth, k -> new long[1])[0]++;
+
+            String domain = domainOf(emails, row);
+            if (domain != null) {
+                domains.merge(domain, 1L, Long::sum);
+            }
+        }
+
+        private void merge(Partial other) {
+            count += other.count;
+            ageSum += other.ageSum;
+            minAge = Math.min(minAge, other.minAge);
+            maxAge = Math.max(maxAge, other.maxAge);
+            other.buckets.forEach((bucket, n) -> buckets.computeIfAbsent(bucket, k -> new long[1])[0] += n[0]);
+            other.domains.forEach((domain, n) -> domains.merge(domain, n, Long::sum));
+        }
+
+        private StudentStatistics toStatistics(int bucketWidth, int topDomains) {
+            SortedMap<Integer, Long> histogram = new TreeMap<>();
+            buckets.forEach((bucket, n) -> histogram.put(bucket, n[0]));
+            return new StudentStatistics(count,
+                    count == 0 ? null : minAge,
+                    count == 0 ? null : maxAge,
+                    count == 0 ? null : (double) ageSum / count,
+                    bucketWidth, histogram, topDomains(domains, topDomains));
+        }
+
+        // Text after the last '@', decoded straight from the column bytes; null without one
+        private static String domainOf(StudentSnapshot.StringColumn emails, int row) {
+            int code = emails.code(row);
+            if (emails.nullCodes().get(code)) {
+                return null;
+            }
+            byte[] data = emails.data();
+            int start = emails.offsets()[code];
+            int end = emails.offsets()[code + 1];
+            for (int i = end - 1; i >= start; i--) {
+                if (data[i] == '@') {
+                    return new String(data, i + 1, end - i - 1, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import javax.swing.table.AbstractTableModel;
+
+// Common columns for every student table; subclasses only decide where rows come from
+public abstract class StudentTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"ID", "First Name", "Last Name", "Age", "Email"};
+
+    private StudentEditBuffer editBuffer;
+
+    // Null means the row exists but has not been loaded yet
+    public abstract Student getStudentAt(int row);
+
+    // Cells other than the id become editable; edits go to the buffer and are shown in
+    // place of the loaded values until they are saved or discarded
+    public void setEditBuffer(StudentEditBuffer editBuffer) {
+        this.editBuffer = editBuffer;
+    }
+
+    // The rows as they are now, for StudentRowSorter to sort and filter off the EDT; null
+    // while not every row is loaded
+    public StudentRows getLoadedRows() {
+        return null;
+    }
+
+    // Only rows read with their version can be edited safely
+    protected boolean supportsEditing() {
+        return true;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 0 || column == 3 ? Integer.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return editBuffer != null && supportsEditing() && column != 0 && getStudentAt(row) != null;
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        Student s = getStudentAt(row);
+        if (s != null && editBuffer != null && editBuffer.edit(s, column, value)) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student s = getStudentAt(row);
+        if (s == null) {
+            return column == 1 ? "Loading…" : null;
+        }
+        if (editBuffer != null && editBuffer.get(s.getId()) != null) {
+            s = editBuffer.get(s.getId());
+        }
+        switch (column) {
+            case 0:
+                return s.getId();
+            case 1:
+                return s.getFirstName();
+            case 2:
+                return s.getLastName();
+            case 3:
+                return s.getAge();
+            case 4:
+                return s.getEmail();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+public class StudentValidator {
+
+    public static final int MIN_AGE = 1;
+    public static final int MAX_AGE = 150;
+
+    // Column widths from db.sql
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final int MAX_EMAIL_LENGTH = 100;
+
+    private StudentValidator() {
+    }
+
+    // Shared by the Add Student form and the CSV importer.
+    // Throws NumberFormatException for a bad age, IllegalArgumentException for anything else.
+    public static Student validate(String firstName, String lastName, String ageText, String email) {
+        String first = trim(firstName);
+        String last = trim(lastName);
+        String ageValue = trim(ageText);
+        String mail = trim(email);
+
+        if (first.isEmpty() || last.isEmpty() || ageValue.isEmpty() || mail.isEmpty()) {
+            throw new IllegalArgumentException("Please fill all fields.");
+        }
+        if (first.length() > MAX_NAME_LENGTH || last.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Names must be at most " + MAX_NAME_LENGTH + " characters.");
+        }
+        if (mail.length() > MAX_EMAIL_LENGTH) {
+            throw new IllegalArgumentException("Email must be at most " + MAX_EMAIL_LENGTH + " characters.");
+        }
+
+        int age;
+        try {
+            age = Integer.parseInt(ageValue);
+        } catch (NumberFormatException ex) {
+            age = -1;
+        }
+        if (age < MIN_AGE || age > MAX_AGE) {
+            throw new NumberFormatException(
+                    "Age must be a valid number between " + MIN_AGE + " and " + MAX_AGE + ".");
+        }
+
+        return new Student(first, last, age, mail);
+    }
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
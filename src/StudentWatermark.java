@@ -0,0 +1,35 @@
+import java.sql.Timestamp;
+
+// Position in the students table's change history: the newest updated_at and the highest
+// id seen, plus the row count at that point. Rows changed after it have a later updated_at;
+// rows inserted after it also have a higher id.
+public class StudentWatermark {
+
+    private final Timestamp updatedAt;
+    private final int maxId;
+    private final int rowCount;
+
+    public StudentWatermark(Timestamp updatedAt, int maxId, int rowCount) {
+        this.updatedAt = updatedAt;
+        this.maxId = maxId;
+        this.rowCount = rowCount;
+    }
+
+    // null while the table is empty
+    public Timestamp getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public int getMaxId() {
+        return maxId;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public String toString() {
+        return "updatedAt=" + updatedAt + ", maxId=" + maxId + ", rows=" + rowCount;
+    }
+}
@@ -0,0 +1,271 @@
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Group commit for single inserts. enqueue() puts a student on a bounded queue and returns
+// a future; one writer thread drains the queue into multi-row batches, each committed as a
+// single transaction, and completes every future with its generated id. A batch is
+// flushed when it reaches maxBatchSize or when its oldest entry has waited maxDelayMillis.
+// If a batch fails, its rows are retried one by one so a single bad row only fails its
+// own future.
+public class StudentWriteBehindQueue implements WriteBehindQueueMXBean, AutoCloseable {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    private final StudentDAO dao;
+    private final BlockingQueue<PendingInsert> queue;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final long offerTimeoutMillis;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Histogram batchSizes = new Histogram();
+
+    public StudentWriteBehindQueue(StudentDAO dao, int capacity, int maxBatchSize,
+                                   long maxDelayMillis, long offerTimeoutMillis) {
+        if (capacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("capacity and maxBatchSize must be at least 1");
+        }
+        this.dao = dao;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.writer = new Thread(this::run, "student-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        DBConnection.beforeShutdown(this::close);
+    }
+
+    // Write-behind is off unless STUDENT_WRITE_BEHIND=true; returns null when disabled
+    public static StudentWriteBehindQueue fromEnvironment(StudentDAO dao) {
+        if (!Boolean.parseBoolean(DBConnection.envString("STUDENT_WRITE_BEHIND", "false"))) {
+            return null;
+        }
+        StudentWriteBehindQueue queue = new StudentWriteBehindQueue(dao,
+                DBConnection.envInt("STUDENT_WRITE_BEHIND_CAPACITY", 10_000),
+                DBConnection.envInt("STUDENT_WRITE_BEHIND_BATCH_SIZE", StudentDAO.DEFAULT_BATCH_SIZE),
+                DBConnection.envInt("STUDENT_WRITE_BEHIND_MAX_DELAY_MS", 20),
+                DBConnection.envInt("STUDENT_WRITE_BEHIND_OFFER_TIMEOUT_MS", 5_000));
+        DbMetrics.register("StudentDB:type=WriteBehindQueue", queue);
+        return queue;
+    }
+
+    // Backpressure: blocks while the queue is full, for at most offerTimeoutMillis, and then
+    // fails with SQLTransientException. The returned future completes after the commit.
+    public CompletableFuture<Integer> enqueue(Student s) throws SQLException {
+        if (closed) {
+            throw new SQLException("Write-behind queue is closed");
+        }
+        PendingInsert pending = new PendingInsert(s);
+        try {
+            if (!queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new SQLTransientException("Write-behind queue is full (" + capacity + " pending inserts)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for queue space", e);
+        }
+        // Lost the race with close(): the writer may already have exited. If it is still
+        // alive, either it commits the row or close() fails it once the writer is gone.
+        if (closed && !writer.isAlive() && queue.remove(pending)) {
+            throw new SQLException("Write-behind queue is closed");
+        }
+        submitted.incrementAndGet();
+        return pending.future;
+    }
+
+    // Stops accepting inserts, commits everything already queued and waits for the writer.
+    // Inserts that reached the queue after the writer's last look at it are failed.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+        List<PendingInsert> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        SQLException error = new SQLException("Write-behind queue is closed");
+        for (PendingInsert pending : leftovers) {
+            failed.incrementAndGet();
+            pending.future.completeExceptionally(error);
+        }
+    }
+
+    private void run() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                // Wait for more rows until the batch is full or the first row's time is up;
+                // when closing, just take what is already queued
+                long deadline = first.enqueuedAt + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (closed || remaining <= 0) {
+                        break;
+                    }
+                    PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Only happens when close() gave up waiting; fail whatever is left
+                batch.addAll(queue);
+                queue.clear();
+                SQLException error = new SQLException("Write-behind queue shut down before commit");
+                for (PendingInsert pending : batch) {
+                    failed.incrementAndGet();
+                    pending.future.completeExceptionally(error);
+                }
+                return;
+            }
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        batchSizes.record(batch.size());
+        List<Student> students = new ArrayList<>(batch.size());
+        for (PendingInsert pending : batch) {
+            students.add(pending.student);
+        }
+        List<Integer> ids;
+        try {
+            ids = dao.addStudents(students, batch.size());
+        } catch (RuntimeException e) {
+            // Thrown by a change listener after the commit, or by the DAO before it; the rows
+            // may be in the database, so retrying them could insert them twice
+            for (PendingInsert pending : batch) {
+                failed.incrementAndGet();
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        } catch (SQLException batchError) {
+            // The whole transaction was rolled back; isolate the row that caused it
+            for (PendingInsert pending : batch) {
+                try {
+                    int id = dao.addStudent(pending.student);
+                    committed.incrementAndGet();
+                    pending.future.complete(id);
+                } catch (SQLException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    pending.future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            committed.incrementAndGet();
+            batch.get(i).future.complete(ids.get(i));
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    @Override
+    public long getCommitted() {
+        return committed.get();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public long getBatches() {
+        return batchSizes.getCount();
+    }
+
+    @Override
+    public double getMeanBatchSize() {
+        return batchSizes.getMean();
+    }
+
+    @Override
+    public long getMaxBatchSize() {
+        return batchSizes.getMax();
+    }
+
+    @Override
+    public long getP50BatchSize() {
+        return batchSizes.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP99BatchSize() {
+        return batchSizes.getValueAtPercentile(99);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth=%d/%d, committed=%d, failed=%d, rejected=%d, batches=%d, "
+                        + "batch size mean=%.1f p99=%d max=%d",
+                getQueueDepth(), capacity, getCommitted(), getFailed(), getRejected(), getBatches(),
+                getMeanBatchSize(), getP99BatchSize(), getMaxBatchSize());
+    }
+
+    private static final class PendingInsert {
+        private final Student student;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        private PendingInsert(Student student) {
+            this.student = student;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+// JMX view of the write-behind insert queue
+public interface WriteBehindQueueMXBean {
+    int getQueueDepth();
+
+    int getCapacity();
+
+    long getSubmitted();
+
+    long getCommitted();
+
+    long getFailed();
+
+    long getRejected();
+
+    long getBatches();
+
+    double getMeanBatchSize();
+
+    long getMaxBatchSize();
+
+    long getP50BatchSize();
+
+    long getP99BatchSize();
+}